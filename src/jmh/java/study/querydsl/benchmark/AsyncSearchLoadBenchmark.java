@@ -0,0 +1,78 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 같은 스레드 예산(THREADS = 요청 처리 스레드 + 조회 스레드)에서 동기(v3/members) vs 비동기(v3/members/async) 엔드포인트 부하 테스트
+ * - sync : 톰캣 스레드 8개가 직접 DB를 기다림
+ * - async : 톰캣 스레드 2개 + AsyncQueryExecutor 스레드 6개 (합 8개). 톰캣 스레드는 요청을 넘기고 바로 반납
+ * 카운트 스레드(COUNT_THREADS)와 커넥션 수는 두 경우 같음. 컨텍스트는 endpoint 파라미터마다 따로 띄움.
+ * 블로킹 JDBC를 다른 플랫폼 스레드 풀로 옮긴다고 DB 작업을 동시에 더 처리하지는 않음. (조회 하나 = 스레드 하나 + 커넥션 하나)
+ * 같은 예산이면 처리량은 비슷하거나 스레드 전환만큼 async가 조금 느린 게 정상. 보려는 건 DB를 안 쓰는 요청에 톰캣 스레드가 남는지와 대기열 초과 시 503.
+ * 503(대기열 초과)도 처리량에 포함되지 않도록 상태 코드를 확인함.
+ *
+ * ./gradlew jmh -Pjmh.includes=AsyncSearchLoadBenchmark
+ */
+@Threads(64)
+public class AsyncSearchLoadBenchmark extends SpringBenchmarkSupport {
+
+    private static final int THREADS = 8;
+    private static final int ASYNC_SERVLET_THREADS = 2;
+    private static final int COUNT_THREADS = 2;
+    private static final int CONNECTIONS = THREADS + COUNT_THREADS;
+
+    @Param({"sync", "async"})
+    public String endpoint;
+
+    private HttpClient client;
+    private URI uri;
+
+    @Override
+    protected List<String> contextArgs() {
+        boolean async = "async".equals(endpoint);
+        int servletThreads = async ? ASYNC_SERVLET_THREADS : THREADS;
+        return List.of("--spring.main.web-application-type=servlet",
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + servletThreads,
+                "--server.tomcat.threads.min-spare=" + servletThreads,
+                "--spring.datasource.hikari.maximum-pool-size=" + CONNECTIONS,
+                "--querydsl.count-query.pool-size=" + COUNT_THREADS,
+                "--querydsl.async.pool-size=" + (THREADS - ASYNC_SERVLET_THREADS),
+                "--querydsl.async.queue-capacity=1000");
+    }
+
+    @Override
+    protected void setUp() {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        String path = "async".equals(endpoint) ? "/v3/members/async" : "/v3/members";
+        uri = URI.create("http://localhost:" + port + path + "?teamName=team1&ageGoe=10&ageLoe=20&page=1&size=20");
+        client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @Benchmark
+    public String search() throws IOException, InterruptedException {
+        return get(uri);
+    }
+
+    private String get(URI uri) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("status " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+}
@@ -0,0 +1,65 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 전체 회원 조회 결과 담기 : List<MemberTeamDto> vs MemberTeamColumns (+ JSON 직렬화까지)
+ * 둘 다 같은 커서(fetchSize)로 읽고 담는 방식만 다름. gc 프로파일러의 gc.alloc.rate.norm(호출당 할당 바이트)을 비교.
+ *
+ * ./gradlew jmh -Pjmh.includes=ColumnarResultBenchmark
+ */
+public class ColumnarResultBenchmark extends SpringBenchmarkSupport {
+
+    private static final int FETCH_SIZE = 1_000;
+
+    private MemberJpaRepository memberJpaRepository;
+    private TransactionTemplate readOnlyTransaction;
+    private ObjectMapper objectMapper;
+
+    private MemberSearchCondition condition;
+
+    @Override
+    protected void setUp() {
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        objectMapper = context.getBean(ObjectMapper.class);
+        condition = new MemberSearchCondition();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> list() {
+        return readOnlyTransaction.execute(status -> {
+            try (Stream<MemberTeamDto> rows = memberJpaRepository.streamByWhere(condition, FETCH_SIZE)) {
+                return rows.toList();
+            }
+        });
+    }
+
+    @Benchmark
+    public MemberTeamColumns columns() {
+        return memberJpaRepository.searchColumns(condition, memberCount, FETCH_SIZE);
+    }
+
+    @Benchmark
+    public void listToJson() throws Exception {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), list());
+    }
+
+    @Benchmark
+    public void columnsToJson() throws Exception {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), columns());
+    }
+
+}
@@ -0,0 +1,59 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 지연 로딩(N+1) vs 페치 조인 : 회원 100명을 읽고 각 회원의 팀 이름까지 접근
+ */
+public class FetchJoinBenchmark extends SpringBenchmarkSupport {
+
+    private static final int ROWS = 100;
+
+    private JPAQueryFactory queryFactory;
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    protected void setUp() {
+        queryFactory = context.getBean(JPAQueryFactory.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+    }
+
+    @Benchmark
+    public void lazyLoading(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .limit(ROWS)
+                    .fetch();
+            for (Member findMember : members) {
+                blackhole.consume(findMember.getTeam().getName());
+            }
+        });
+    }
+
+    @Benchmark
+    public void fetchJoin(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .join(member.team, team).fetchJoin()
+                    .limit(ROWS)
+                    .fetch();
+            for (Member findMember : members) {
+                blackhole.consume(findMember.getTeam().getName());
+            }
+        });
+    }
+
+}
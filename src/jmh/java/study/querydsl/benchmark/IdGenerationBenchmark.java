@@ -0,0 +1,121 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.entity.Hello;
+import study.querydsl.entity.Member;
+
+import java.util.function.IntFunction;
+
+/**
+ * id 생성 방식별 동시 insert 처리량 (스레드 8개가 트랜잭션마다 100건씩 persist)
+ * - unpooled : 시퀀스 allocationSize = 1 (insert마다 시퀀스 조회)
+ * - hibernateDefault : @GeneratedValue만 (엔티티별 시퀀스, allocationSize 50)
+ * - member : member_seq, allocationSize 100
+ * - timeOrdered : @TimeOrderedId (Hello, 시퀀스 조회 없음)
+ * optimizer 파라미터로 pooled / pooled-lo 비교.
+ * 다른 벤치마크와 달리 회원 데이터를 미리 넣지 않음. (직접 지정한 id와 시퀀스가 겹치지 않게)
+ *
+ * ./gradlew jmh -Pjmh.includes=IdGenerationBenchmark
+ */
+@State(Scope.Benchmark)
+@Threads(8)
+public class IdGenerationBenchmark {
+
+    private static final int ROWS_PER_TRANSACTION = 100;
+
+    @Param({"pooled", "pooled-lo"})
+    public String optimizer;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .run("--spring.profiles.active=bench",
+                        "--spring.datasource.url=jdbc:h2:mem:id-bench;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                        "--spring.jpa.properties.hibernate.id.optimizer.pooled.preferred=" + optimizer,
+                        "--logging.level.org.hibernate.SQL=warn",
+                        "--decorator.datasource.p6spy.enable-logging=false",
+                        "--spring.main.web-application-type=none");
+        em = context.getBean(EntityManager.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public void unpooled() {
+        persist(i -> new UnpooledIdEntity());
+    }
+
+    @Benchmark
+    public void hibernateDefault() {
+        persist(i -> new DefaultIdEntity());
+    }
+
+    @Benchmark
+    public void member() {
+        persist(i -> new Member("member" + i, i));
+    }
+
+    @Benchmark
+    public void timeOrdered() {
+        persist(i -> new Hello());
+    }
+
+    private void persist(IntFunction<Object> factory) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS_PER_TRANSACTION; i++) {
+                em.persist(factory.apply(i));
+            }
+            em.flush();
+            em.clear();
+        });
+    }
+
+    // 벤치마크 실행 시에만 스캔되는 비교용 엔티티
+    @Entity
+    public static class UnpooledIdEntity {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "unpooled_seq_generator")
+        @SequenceGenerator(name = "unpooled_seq_generator", sequenceName = "unpooled_seq", allocationSize = 1)
+        private Long id;
+
+    }
+
+    @Entity
+    public static class DefaultIdEntity {
+
+        @Id
+        @GeneratedValue
+        private Long id;
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.MemberCountCache;
+
+import java.util.List;
+
+/**
+ * searchByBuilder vs searchByWhere, searchPageSimple vs searchPageComplex
+ */
+public class MemberSearchBenchmark extends SpringBenchmarkSupport {
+
+    private MemberJpaRepository memberJpaRepository;
+    private MemberRepository memberRepository;
+    private MemberCountCache countCache;
+
+    private MemberSearchCondition condition;
+    private PageRequest pageRequest;
+
+    @Override
+    protected void setUp() {
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        countCache = context.getBean(MemberCountCache.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("team1");
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(20);
+
+        pageRequest = PageRequest.of(1, 20);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByBuilder() {
+        return memberJpaRepository.searchByBuilder(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByWhere() {
+        return memberJpaRepository.searchByWhere(condition);
+    }
+
+    // 카운트 캐시가 있으면 카운트 쿼리 비용이 측정에서 빠지기 때문에 매번 비움.
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSimple() {
+        countCache.clear();
+        return memberRepository.searchPageSimple(condition, pageRequest);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        countCache.clear();
+        return memberRepository.searchPageComplex(condition, pageRequest);
+    }
+
+}
@@ -0,0 +1,92 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.support.MemberSearchPredicates;
+
+import static io.micrometer.common.util.StringUtils.isEmpty;
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 검색 조건 where 절 만들기 : 매번 BooleanExpression 생성(기존 usernameEq() 등) vs MemberSearchPredicates(미리 만든 식 + 파라미터 바인딩)
+ * DB 없이 쿼리 객체만 만듦. gc 프로파일러의 gc.alloc.rate.norm(호출당 할당 바이트)을 비교.
+ * serialize는 JPQL 문자열까지 만든 경우. (실제 실행 시 하이버네이트로 넘어가기 전까지의 비용)
+ *
+ * ./gradlew jmh -Pjmh.includes=PredicateBenchmark
+ */
+@State(Scope.Benchmark)
+public class PredicateBenchmark {
+
+    private MemberSearchCondition condition;
+
+    @Setup
+    public void setUp() {
+        condition = new MemberSearchCondition();
+        condition.setUsername("member1");
+        condition.setTeamName("team1");
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(20);
+    }
+
+    @Benchmark
+    public JPAQuery<MemberTeamDto> fresh() {
+        return query()
+                .where(usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()));
+    }
+
+    @Benchmark
+    public JPAQuery<MemberTeamDto> shared() {
+        return MemberSearchPredicates.apply(query(), condition);
+    }
+
+    @Benchmark
+    public String freshSerialize() {
+        return fresh().toString();
+    }
+
+    @Benchmark
+    public String sharedSerialize() {
+        return shared().toString();
+    }
+
+    private JPAQuery<MemberTeamDto> query() {
+        return new JPAQuery<Void>()
+                .select(new QMemberTeamDto(member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .join(member.team, team);
+    }
+
+    // 리포지토리에 복사돼 있던 기존 방식 (비교용)
+    private BooleanExpression usernameEq(String username) {
+        return isEmpty(username) ? null : member.username.eq(username);
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+
+}
@@ -0,0 +1,105 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.UserDto;
+import study.querydsl.repository.support.DtoProjection;
+
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * QuerydslBasicTest의 DTO 조회 방식별 비교 (setter, field, 생성자, @QueryProjection, DtoProjection)
+ * DB 조회까지 포함한 비용. DTO 생성 비용만 따로 보려면 ProjectionFactoryBenchmark
+ */
+public class ProjectionBenchmark extends SpringBenchmarkSupport {
+
+    private static final int ROWS = 1_000;
+
+    private JPAQueryFactory queryFactory;
+
+    @Override
+    protected void setUp() {
+        queryFactory = context.getBean(JPAQueryFactory.class);
+    }
+
+    @Benchmark
+    public List<MemberDto> bean() {
+        return queryFactory
+                .select(Projections.bean(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> fields() {
+        return queryFactory
+                .select(Projections.fields(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<UserDto> fieldsWithAlias() {
+        return queryFactory
+                .select(Projections.fields(UserDto.class,
+                        member.username.as("name"),
+                        member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> constructor() {
+        return queryFactory
+                .select(Projections.constructor(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> queryProjection() {
+        return queryFactory
+                .select(new QMemberDto(member.username, member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<MemberDto> dtoProjection() {
+        return queryFactory
+                .select(DtoProjection.of(MemberDto.class,
+                        member.username,
+                        member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+
+    @Benchmark
+    public List<UserDto> dtoProjectionWithAlias() {
+        return queryFactory
+                .select(DtoProjection.of(UserDto.class,
+                        member.username.as("name"),
+                        member.age))
+                .from(member)
+                .limit(ROWS)
+                .fetch();
+    }
+
+}
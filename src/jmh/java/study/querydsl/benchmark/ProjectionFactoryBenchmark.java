@@ -0,0 +1,96 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.QMemberDto;
+import study.querydsl.dto.UserDto;
+import study.querydsl.repository.support.DtoProjection;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * DTO 생성 비용만 비교 : 쿼리 결과 row(Object[])를 FactoryExpression.newInstance()로 DTO로 바꾸는 부분
+ * (Querydsl이 조회 결과 row마다 호출하는 것과 같음. DB 없이 실행)
+ * bean/fields는 row마다 리플렉션, DtoProjection은 미리 만든 람다, @QueryProjection은 생성자 직접 호출(기준선)
+ *
+ * ./gradlew jmh -Pjmh.includes=ProjectionFactoryBenchmark
+ */
+@State(Scope.Benchmark)
+public class ProjectionFactoryBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    private FactoryExpression<MemberDto> bean;
+    private FactoryExpression<MemberDto> fields;
+    private FactoryExpression<UserDto> fieldsWithAlias;
+    private FactoryExpression<MemberDto> constructor;
+    private FactoryExpression<MemberDto> queryProjection;
+    private FactoryExpression<MemberDto> dtoProjection;
+    private FactoryExpression<UserDto> dtoProjectionWithAlias;
+
+    private Object[][] rows;
+
+    @Setup
+    public void setUp() {
+        bean = Projections.bean(MemberDto.class, member.username, member.age);
+        fields = Projections.fields(MemberDto.class, member.username, member.age);
+        fieldsWithAlias = Projections.fields(UserDto.class, member.username.as("name"), member.age);
+        constructor = Projections.constructor(MemberDto.class, member.username, member.age);
+        queryProjection = new QMemberDto(member.username, member.age);
+        dtoProjection = DtoProjection.of(MemberDto.class, member.username, member.age);
+        dtoProjectionWithAlias = DtoProjection.of(UserDto.class, member.username.as("name"), member.age);
+
+        rows = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = new Object[]{"member" + i, i % 100};
+        }
+    }
+
+    @Benchmark
+    public void bean(Blackhole bh) {
+        project(bean, bh);
+    }
+
+    @Benchmark
+    public void fields(Blackhole bh) {
+        project(fields, bh);
+    }
+
+    @Benchmark
+    public void fieldsWithAlias(Blackhole bh) {
+        project(fieldsWithAlias, bh);
+    }
+
+    @Benchmark
+    public void constructor(Blackhole bh) {
+        project(constructor, bh);
+    }
+
+    @Benchmark
+    public void queryProjection(Blackhole bh) {
+        project(queryProjection, bh);
+    }
+
+    @Benchmark
+    public void dtoProjection(Blackhole bh) {
+        project(dtoProjection, bh);
+    }
+
+    @Benchmark
+    public void dtoProjectionWithAlias(Blackhole bh) {
+        project(dtoProjectionWithAlias, bh);
+    }
+
+    private void project(FactoryExpression<?> factory, Blackhole bh) {
+        for (Object[] row : rows) {
+            bh.consume(factory.newInstance(row));
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.QuerydslApplication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크 공통 : 임베디드 H2(메모리)로 스프링 컨텍스트를 띄우고 회원 데이터를 memberCount 만큼 넣어둠.
+ * 100만 건도 넣어야 해서 em.persist() 대신 JDBC 배치로 직접 insert. (조회 전용이라 id는 직접 지정)
+ * 팀은 100개 : 지연 로딩 시 N+1이 실제로 보이도록 페이지 안의 회원들이 서로 다른 팀을 갖게 함.
+ */
+@State(Scope.Benchmark)
+public abstract class SpringBenchmarkSupport {
+
+    static final int TEAM_COUNT = 100;
+    private static final int BATCH_SIZE = 1_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int memberCount;
+
+    protected ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        // application.yml보다 우선하도록 커맨드라인 인자로 넘김. (local 프로필이면 InitMember가 데이터를 넣어버림)
+        List<String> args = new ArrayList<>(List.of("--spring.profiles.active=bench",
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--decorator.datasource.p6spy.enable-logging=false"));
+        args.addAll(contextArgs());
+        context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .run(args.toArray(String[]::new));
+        seed(context.getBean(JdbcTemplate.class));
+        setUp();
+    }
+
+    // 같은 키를 두 번 넘기면 값이 합쳐지기 때문에 하위 벤치마크가 바꿀 수 있는 인자는 여기로만 넘김
+    protected List<String> contextArgs() {
+        return List.of("--spring.main.web-application-type=none");
+    }
+
+    // 하위 벤치마크에서 빈 꺼내기 등
+    protected abstract void setUp();
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> teams = new ArrayList<>();
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            teams.add(new Object[]{(long) i + 1, "team" + i});
+        }
+        jdbcTemplate.batchUpdate("insert into team (member_id, name) values (?, ?)", teams);
+
+        List<Object[]> members = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < memberCount; i++) {
+            members.add(new Object[]{(long) i + 1, "member" + i, i % 100, (long) (i % TEAM_COUNT) + 1});
+            if (members.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", members);
+                members.clear();
+            }
+        }
+        if (!members.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", members);
+        }
+    }
+
+}
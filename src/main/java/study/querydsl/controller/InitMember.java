@@ -1,14 +1,13 @@
 package study.querydsl.controller;
 
 import jakarta.annotation.PostConstruct;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-import study.querydsl.entity.Member;
-import study.querydsl.entity.Team;
+import study.querydsl.dto.MemberRow;
+import study.querydsl.repository.MemberBulkLoader;
+
+import java.util.stream.IntStream;
 
 @Profile("local")
 @Component
@@ -23,21 +22,15 @@ public class InitMember {
     }
 
     @Component
+    @RequiredArgsConstructor
     static class InitMemberService {
-        @PersistenceContext
-        private EntityManager em;
 
-        @Transactional
+        private final MemberBulkLoader memberBulkLoader;
+
+        // 건마다 persist 하는 대신 배치 insert로 적재 (팀은 이름으로 찾아서 없으면 생성)
         public void init() {
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-            em.persist(teamA);
-            em.persist(teamB);
-
-            for (int i = 0; i < 100; i++) {
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + i, i, selectedTeam));
-            }
+            memberBulkLoader.load(IntStream.range(0, 100)
+                    .mapToObj(i -> new MemberRow("member" + i, i, i % 2 == 0 ? "teamA" : "teamB")));
         }
     }
 
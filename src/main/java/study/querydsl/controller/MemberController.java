@@ -1,16 +1,28 @@
 package study.querydsl.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamSlice;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.support.AsyncQueryExecutor;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
@@ -18,6 +30,7 @@ public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final AsyncQueryExecutor asyncQueryExecutor;
 
     @GetMapping("v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
@@ -31,8 +44,44 @@ public class MemberController {
     }
 
     @GetMapping("v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
+    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable,
+                                              @RequestParam(defaultValue = "false") boolean approximate) {
+        if (approximate) {
+            return memberRepository.searchPageApproximate(condition, pageable);
+        }
         return memberRepository.searchPageComplex(condition, pageable);
     }
 
+    // 키셋 페이징 : 응답의 nextCursor를 다음 요청의 cursor로 넘기면 됨. (깊은 페이지도 조회 속도 일정)
+    @GetMapping("v4/members")
+    public MemberTeamSlice searchMemberV4(MemberSearchCondition condition,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "20") int size) {
+        return memberRepository.searchSlice(condition, cursor, Math.min(Math.max(size, 1), 100));
+    }
+
+    // 한 화면에서 여러 조건으로 조회할 때 요청 하나로 묶어서 보냄. 응답은 요청 조건 순서대로 결과 목록
+    @PostMapping("v1/members/batch")
+    public List<List<MemberTeamDto>> searchMemberBatch(@RequestBody List<MemberSearchCondition> conditions) {
+        return memberRepository.searchBatch(conditions);
+    }
+
+    // v1, v3의 비동기 버전 : 조회는 AsyncQueryExecutor 스레드에서 하고 톰캣 스레드는 바로 반납 (MVC 비동기 요청 처리)
+    @GetMapping("v1/members/async")
+    public CompletableFuture<List<MemberTeamDto>> searchMemberV1Async(MemberSearchCondition condition) {
+        return asyncQueryExecutor.submit(() -> memberJpaRepository.searchByWhere(condition));
+    }
+
+    @GetMapping("v3/members/async")
+    public CompletableFuture<Page<MemberTeamDto>> searchMemberV3Async(MemberSearchCondition condition, Pageable pageable) {
+        return asyncQueryExecutor.submit(() -> memberRepository.searchPageComplex(condition, pageable));
+    }
+
+    // 쿼리 timeout(querydsl.query.timeout)이 지나서 DB에서 쿼리가 취소됨
+    @ExceptionHandler({QueryTimeoutException.class, TransactionTimedOutException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Map<String, String> timeout(RuntimeException e) {
+        return Map.of("message", "검색 시간이 초과됐습니다. 검색 조건을 좁혀주세요.");
+    }
+
 }
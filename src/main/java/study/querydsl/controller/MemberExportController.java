@@ -0,0 +1,143 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.support.QueryBusyException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * 회원 검색 결과 내보내기
+ * v1/members 처럼 List로 다 올린 다음 직렬화하지 않고, DB 커서에서 읽는 대로 바로 응답에 씀. (결과 크기와 상관 없이 힙 사용량 일정)
+ * v1/members/columns : 결과를 한 번에 JSON 배열로 줘야 할 때. MemberTeamDto 대신 컬럼 배열(MemberTeamColumns)에 담아서 힙 사용량을 줄임.
+ *   그래도 요청마다 최대 columns-max-rows건을 메모리에 올리기 때문에 동시에 columns-concurrency개까지만 실행하고 나머지는 바로 503.
+ *   (힙 최대 사용량 ≒ columns-max-rows × columns-concurrency. 더 큰 결과는 v1/members/export로 스트리밍)
+ */
+@RestController
+public class MemberExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long exportTimeoutMillis;
+    private final int fetchSize;
+    private final int columnsMaxRows;
+    private final Semaphore columnsPermits;
+
+    public MemberExportController(MemberJpaRepository memberJpaRepository,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${querydsl.export.fetch-size:500}") int fetchSize,
+                                  @Value("${querydsl.export.stream-timeout:3600}") int exportTimeout,
+                                  @Value("${querydsl.export.columns-max-rows:100000}") int columnsMaxRows,
+                                  @Value("${querydsl.export.columns-concurrency:2}") int columnsConcurrency) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // 내보내기 요청의 비동기 timeout과 같게. -1(0 이하)이면 제한 없음
+        this.readOnlyTransaction.setTimeout(exportTimeout > 0 ? exportTimeout : TransactionDefinition.TIMEOUT_DEFAULT);
+        this.exportTimeoutMillis = exportTimeout > 0 ? exportTimeout * 1000L : -1;
+        this.fetchSize = fetchSize;
+        this.columnsMaxRows = columnsMaxRows;
+        this.columnsPermits = new Semaphore(columnsConcurrency);
+    }
+
+    // format : ndjson(기본), csv
+    // StreamingResponseBody는 MVC 비동기 기본 timeout(spring.mvc.async.request-timeout, 검색과 같이 짧음)을 써서 대량이면 쓰는 도중에 끊김.
+    // WebAsyncTask로 이 요청만 querydsl.export.stream-timeout을 줌. 응답은 직접 쓰고, 비동기 결과(null)는 @ResponseStatus로 처리 끝.
+    @GetMapping("v1/members/export")
+    @ResponseStatus(HttpStatus.OK)
+    public WebAsyncTask<Void> export(MemberSearchCondition condition,
+                                     @RequestParam(defaultValue = "ndjson") String format,
+                                     HttpServletResponse response) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        response.setContentType((csv ? CSV : NDJSON).toString());
+
+        // 응답 쓰는 스레드에서 트랜잭션을 열어야 커서가 끝까지 살아있음.
+        Callable<Void> body = () -> {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<MemberTeamDto> rows = memberJpaRepository.streamByWhere(condition, fetchSize)) {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+                    if (csv) {
+                        writer.write("memberId,username,age,teamId,teamName\n");
+                    }
+                    rows.forEach(row -> write(writer, row, csv));
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return null;
+        };
+        return new WebAsyncTask<>(exportTimeoutMillis, body);
+    }
+
+    // 응답 모양은 v1/members와 같음 ([{memberId, username, age, teamId, teamName}, ...]). columns-max-rows를 넘으면 400
+    // 버퍼는 응답을 다 쓸 때까지 살아있어서 반환하지 않고 직접 써서 그때까지 한도를 잡고 있음.
+    @GetMapping("v1/members/columns")
+    public void searchColumns(MemberSearchCondition condition, HttpServletResponse response) throws IOException {
+        if (!columnsPermits.tryAcquire()) {
+            throw new QueryBusyException("columns 조회 동시 실행 한도를 넘었습니다.");
+        }
+        try {
+            MemberTeamColumns columns = memberJpaRepository.searchColumns(condition, columnsMaxRows, fetchSize);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            objectMapper.writeValue(response.getOutputStream(), columns);
+        } finally {
+            columnsPermits.release();
+        }
+    }
+
+    private void write(Writer writer, MemberTeamDto row, boolean csv) {
+        try {
+            if (csv) {
+                writer.write(row.getMemberId() + "," + csvValue(row.getUsername()) + "," + row.getAge() + ","
+                        + (row.getTeamId() == null ? "" : row.getTeamId()) + "," + csvValue(row.getTeamName()));
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+}
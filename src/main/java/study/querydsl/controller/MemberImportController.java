@@ -0,0 +1,48 @@
+package study.querydsl.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.repository.MemberBulkLoader;
+import study.querydsl.repository.support.InvalidImportRowException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 회원 대량 적재 : 요청 본문을 통째로 메모리에 올리지 않고 한 줄씩 읽으면서 적재
+ * Content-Type이 text/csv면 CSV, 그 외에는 NDJSON으로 처리
+ * 읽을 수 없는 행이 있으면 400 : 몇 번째 줄인지와 그 전까지 커밋된 건수(loadedRows)를 알려줌. (앞 청크는 롤백되지 않음)
+ */
+@RestController
+@RequiredArgsConstructor
+public class MemberImportController {
+
+    private final MemberBulkLoader memberBulkLoader;
+
+    @PostMapping("v1/members/import")
+    public MemberBulkLoader.Result importMembers(HttpServletRequest request) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.startsWith("text/csv")) {
+            return memberBulkLoader.loadCsv(reader);
+        }
+        return memberBulkLoader.loadNdjson(reader);
+    }
+
+    @ExceptionHandler(InvalidImportRowException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, Object> invalidRow(InvalidImportRowException e) {
+        return Map.of("message", e.getMessage(),
+                "line", e.getLine(),
+                "loadedRows", e.getLoadedRows());
+    }
+
+}
@@ -0,0 +1,30 @@
+package study.querydsl.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import study.querydsl.repository.support.NPlusOneDetector;
+
+import java.io.IOException;
+
+// 요청 하나에서 같은 쿼리가 반복되면 N+1 경고 로그를 남김 (NPlusOneDetector와 같이 켜고 끔)
+@Component
+@ConditionalOnProperty(name = "querydsl.n-plus-one.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class QueryScopeFilter extends OncePerRequestFilter {
+
+    private final NPlusOneDetector nPlusOneDetector;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try (NPlusOneDetector.Scope scope = nPlusOneDetector.open(request.getMethod() + " " + request.getRequestURI())) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package study.querydsl.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import study.querydsl.repository.support.InvalidSearchParameterException;
+import study.querydsl.repository.support.QueryBusyException;
+
+import java.util.Map;
+
+/**
+ * 모든 컨트롤러 공통 : 검색 파라미터 오류는 400
+ * 허용하지 않은 정렬 속성, 잘못된 커서, 결과가 너무 많은 조건(SearchTooBroadException) 등
+ * 동시 조회 한도를 넘어서 거절된 요청(QueryBusyException)은 503
+ */
+@RestControllerAdvice
+public class SearchParameterExceptionHandler {
+
+    @ExceptionHandler(InvalidSearchParameterException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> badRequest(InvalidSearchParameterException e) {
+        return Map.of("message", e.getMessage());
+    }
+
+    @ExceptionHandler(QueryBusyException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Map<String, String> busy(QueryBusyException e) {
+        return Map.of("message", "동시에 처리 중인 검색이 너무 많습니다. 잠시 후 다시 시도해주세요.");
+    }
+
+}
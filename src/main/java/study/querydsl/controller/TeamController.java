@@ -0,0 +1,36 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.MemberTeamSlice;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.repository.TeamMemberQuery;
+import study.querydsl.repository.TeamStatsRepository;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamMemberQuery teamMemberQuery;
+    private final TeamStatsRepository teamStatsRepository;
+
+    // 팀 회원 목록 키셋 페이징 : 응답의 nextCursor를 다음 요청의 cursor로 넘기면 됨.
+    @GetMapping("v1/teams/{teamId}/members")
+    public MemberTeamSlice teamMembers(@PathVariable Long teamId,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(defaultValue = "20") int size) {
+        return teamMemberQuery.findMembers(teamId, cursor, Math.min(Math.max(size, 1), 100));
+    }
+
+    // 팀별 회원 수, 나이 합계/평균/최소/최대 (미리 계산된 team_stats에서 읽음)
+    @GetMapping("v1/teams/stats")
+    public List<TeamStatsDto> teamStats() {
+        return teamStatsRepository.findAll();
+    }
+
+}
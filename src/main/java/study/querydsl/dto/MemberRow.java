@@ -0,0 +1,8 @@
+package study.querydsl.dto;
+
+/**
+ * 대량 적재용 입력 한 줄 (CSV: username,age,teamName / NDJSON: {"username":..,"age":..,"teamName":..})
+ * teamName이 비어있으면 팀 없는 회원
+ */
+public record MemberRow(String username, int age, String teamName) {
+}
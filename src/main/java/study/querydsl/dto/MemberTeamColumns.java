@@ -0,0 +1,202 @@
+package study.querydsl.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * 대량 검색 결과를 List<MemberTeamDto> 대신 컬럼별 배열로 담는 컨테이너
+ * MemberTeamDto는 row마다 객체 헤더 + Long 2개(박싱) + String 2개 참조가 붙음.
+ * 여기서는 id/나이를 primitive 배열에 넣고, 팀은 종류가 몇 개 안 되니 사전(팀 id, 팀 이름)에 한 번만 넣고 row에는 사전 번호(int)만 저장.
+ *
+ * - 조회 : cursor()로 row를 하나씩 읽음. (row 객체를 만들지 않음) 필요하면 get(i)로 MemberTeamDto를 만듦.
+ * - JSON : List<MemberTeamDto>와 같은 모양([{memberId, username, age, teamId, teamName}, ...])으로 배열에서 바로 씀.
+ */
+@JsonSerialize(using = MemberTeamColumns.Serializer.class)
+public class MemberTeamColumns {
+
+    private static final int NO_TEAM = -1;
+
+    private long[] memberIds;
+    private String[] usernames;
+    private int[] ages;
+    private int[] teamCodes; // 팀 사전 번호 (팀 없으면 NO_TEAM)
+    private int size;
+
+    // 팀 사전
+    private final List<Long> teamIds = new ArrayList<>();
+    private final List<String> teamNames = new ArrayList<>();
+    private final Map<Long, Integer> teamCodeById = new HashMap<>();
+
+    public MemberTeamColumns() {
+        this(16);
+    }
+
+    public MemberTeamColumns(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.memberIds = new long[capacity];
+        this.usernames = new String[capacity];
+        this.ages = new int[capacity];
+        this.teamCodes = new int[capacity];
+    }
+
+    public void add(long memberId, String username, int age, Long teamId, String teamName) {
+        if (size == memberIds.length) {
+            grow();
+        }
+        memberIds[size] = memberId;
+        usernames[size] = username;
+        ages[size] = age;
+        teamCodes[size] = teamCode(teamId, teamName);
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // 사전에 들어있는 팀 수
+    public int teamCount() {
+        return teamIds.size();
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    // 기존 DTO가 필요한 곳 (row 하나만 객체로 만듦)
+    public MemberTeamDto get(int index) {
+        checkIndex(index);
+        int code = teamCodes[index];
+        return new MemberTeamDto(memberIds[index], usernames[index], ages[index],
+                code == NO_TEAM ? null : teamIds.get(code),
+                code == NO_TEAM ? null : teamNames.get(code));
+    }
+
+    private int teamCode(Long teamId, String teamName) {
+        if (teamId == null) {
+            return NO_TEAM;
+        }
+        Integer code = teamCodeById.get(teamId);
+        if (code == null) {
+            code = teamIds.size();
+            teamIds.add(teamId);
+            teamNames.add(teamName);
+            teamCodeById.put(teamId, code);
+        }
+        return code;
+    }
+
+    private void grow() {
+        int capacity = memberIds.length + (memberIds.length >> 1) + 1;
+        memberIds = Arrays.copyOf(memberIds, capacity);
+        usernames = Arrays.copyOf(usernames, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        teamCodes = Arrays.copyOf(teamCodes, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    /**
+     * row 하나를 가리키는 커서 (next()로 이동)
+     * while (cursor.next()) { cursor.getUsername(); ... }
+     */
+    public class Cursor {
+
+        private int index = -1;
+
+        public boolean next() {
+            if (index + 1 >= size) {
+                index = size;
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public long getMemberId() {
+            return memberIds[current()];
+        }
+
+        public String getUsername() {
+            return usernames[current()];
+        }
+
+        public int getAge() {
+            return ages[current()];
+        }
+
+        public boolean hasTeam() {
+            return teamCodes[current()] != NO_TEAM;
+        }
+
+        // 팀이 없으면 null
+        public Long getTeamId() {
+            int code = teamCodes[current()];
+            return code == NO_TEAM ? null : teamIds.get(code);
+        }
+
+        public String getTeamName() {
+            int code = teamCodes[current()];
+            return code == NO_TEAM ? null : teamNames.get(code);
+        }
+
+        private int current() {
+            if (index < 0 || index >= size) {
+                throw new NoSuchElementException("커서가 row를 가리키고 있지 않습니다. next()를 먼저 호출하세요.");
+            }
+            return index;
+        }
+    }
+
+    // row 객체 없이 배열에서 바로 JSON을 씀
+    public static class Serializer extends StdSerializer<MemberTeamColumns> {
+
+        public Serializer() {
+            super(MemberTeamColumns.class);
+        }
+
+        @Override
+        public void serialize(MemberTeamColumns columns, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartArray(columns, columns.size);
+            for (int i = 0; i < columns.size; i++) {
+                int code = columns.teamCodes[i];
+                gen.writeStartObject();
+                gen.writeNumberField("memberId", columns.memberIds[i]);
+                gen.writeStringField("username", columns.usernames[i]);
+                gen.writeNumberField("age", columns.ages[i]);
+                if (code == NO_TEAM) {
+                    gen.writeNullField("teamId");
+                    gen.writeNullField("teamName");
+                } else {
+                    gen.writeNumberField("teamId", columns.teamIds.get(code));
+                    gen.writeStringField("teamName", columns.teamNames.get(code));
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+    }
+
+}
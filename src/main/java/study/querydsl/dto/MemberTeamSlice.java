@@ -0,0 +1,24 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 키셋(seek) 페이징 결과
+ * nextCursor : 다음 페이지를 요청할 때 그대로 넘겨주면 되는 토큰 (마지막 페이지면 null)
+ */
+@Getter
+public class MemberTeamSlice {
+
+    private final List<MemberTeamDto> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public MemberTeamSlice(List<MemberTeamDto> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+
+}
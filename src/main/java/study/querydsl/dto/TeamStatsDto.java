@@ -0,0 +1,29 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+@Data
+public class TeamStatsDto {
+
+    private Long teamId;
+    private String teamName;
+
+    private long memberCount;
+    private long ageSum;
+    private Double ageAvg; // 회원이 없으면 null
+    private Integer ageMin;
+    private Integer ageMax;
+
+    @QueryProjection
+    public TeamStatsDto(Long teamId, String teamName, long memberCount, long ageSum, Integer ageMin, Integer ageMax) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.ageAvg = memberCount > 0 ? (double) ageSum / memberCount : null;
+        this.ageMin = ageMin;
+        this.ageMax = ageMax;
+    }
+
+}
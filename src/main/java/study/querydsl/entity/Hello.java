@@ -1,7 +1,6 @@
 package study.querydsl.entity;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import lombok.Getter;
 import lombok.Setter;
@@ -10,7 +9,7 @@ import lombok.Setter;
 @Getter @Setter
 public class Hello {
 
-    @Id @GeneratedValue
+    @Id @TimeOrderedId // 시퀀스 없이 애플리케이션에서 시간순 id 생성
     private Long id;
 
 }
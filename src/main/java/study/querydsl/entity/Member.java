@@ -2,16 +2,30 @@ package study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+// 검색 조건(username, age, team) 모양별 인덱스. username, age, team_id를 같이 넣어서 MemberTeamDto의 회원 컬럼은 인덱스만으로 조회(커버링 인덱스)
+@Table(indexes = {
+        @Index(name = "idx_member_username_age", columnList = "username, age, team_id"),
+        @Index(name = "idx_member_age", columnList = "age, username, team_id"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"),
+        @Index(name = "idx_member_team_id", columnList = "team_id, member_id") // 팀별 회원 키셋 페이징 (TeamMemberQuery)
+})
+// findByUsername 쿼리 캐시는 id 목록만 저장함. 엔티티도 2차 캐시에 있어야 캐시 적중 시 row마다 select가 나가지 않음.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member {
 
+    // 엔티티별 시퀀스 + pooled-lo : allocationSize 만큼 id를 한 번에 받아두고 메모리에서 씀. (insert 100건에 시퀀스 조회 1번)
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 100)
     @Column(name = "member_id")
     private Long id;
 
@@ -36,12 +50,15 @@ public class Member {
         this.username = username;
         this.age = age;
         this.team = team;
-        team.getMembers().add(this);
+        team.addMember(this);
     }
 
     public void changeTeam(Team team) {
+        if (this.team != null) {
+            this.team.removeMember(this);
+        }
         this.team = team;
-        team.getMembers().add(this);
+        team.addMember(this);
     }
 
 }
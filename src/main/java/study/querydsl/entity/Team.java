@@ -2,29 +2,62 @@ package study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name")) // teamName 검색 조건
+@Cacheable // 팀은 거의 안 바뀌는 작은 테이블이라 2차 캐시에 올려둠. (getTeam() 지연 로딩도 캐시에서 가져옴)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
 public class Team {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 100)
     @Column(name = "member_id")
     private Long id;
 
     private String name;
 
+    // 회원 수만큼 커질 수 있어서 컬렉션을 통째로 꺼내 쓰지 않게 getter/setter를 막아둠. (조회는 TeamMemberQuery로 페이징)
+    // 매핑은 JPQL/Querydsl 조인(team.members)용으로 남겨둠.
     @OneToMany(mappedBy = "team")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
         this.name = name;
     }
 
+    // fetch join 등으로 이미 로딩된 경우에만 읽기 전용으로 꺼내줌. (로딩 전이면 통째로 지연 로딩하지 않고 예외)
+    public List<Member> getLoadedMembers() {
+        if (!Hibernate.isInitialized(members)) {
+            throw new IllegalStateException("members가 로딩되지 않았습니다. fetch join으로 조회하거나 TeamMemberQuery를 사용하세요.");
+        }
+        return Collections.unmodifiableList(members);
+    }
+
+    // 이미 로딩된 컬렉션에만 반영하고, 로딩 전이면 건드리지 않음. (회원 하나 추가하려고 전체를 로딩하지 않게)
+    // 로딩 전이면 나중에 DB에서 읽을 때 반영돼 있음. (flush 이후)
+    void addMember(Member member) {
+        if (Hibernate.isInitialized(members)) {
+            members.add(member);
+        }
+    }
+
+    void removeMember(Member member) {
+        if (Hibernate.isInitialized(members)) {
+            members.remove(member);
+        }
+    }
 
 }
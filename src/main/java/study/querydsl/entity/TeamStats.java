@@ -0,0 +1,33 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * 팀별 회원 나이 통계 (count, sum, min, max) 를 미리 계산해둔 테이블
+ * 회원 insert/팀 변경/나이 변경/삭제 시 커밋 직전에 갱신됨. (TeamStatsEventListener)
+ * 값은 SQL로만 갱신하기 때문에 엔티티로 수정하지 않음. 조회는 TeamStatsRepository
+ */
+@Entity
+@Table(name = "team_stats")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+
+    private long memberCount;
+    private long ageSum;
+    private Integer ageMin;
+    private Integer ageMax;
+
+}
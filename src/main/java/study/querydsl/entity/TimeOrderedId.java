@@ -0,0 +1,20 @@
+package study.querydsl.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * DB 시퀀스 없이 애플리케이션에서 시간순으로 증가하는 Long id를 만듦 (@GeneratedValue 대신 사용)
+ * 노드 번호는 hibernate 설정 querydsl.id.node (spring.jpa.properties.querydsl.id.node), 서버마다 다르게 줘야 함. (설정이 없으면 시작 실패)
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface TimeOrderedId {
+}
@@ -0,0 +1,91 @@
+package study.querydsl.entity;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+import java.util.function.LongSupplier;
+
+/**
+ * 시간순 id : 41비트 밀리초(2024-01-01부터) | 10비트 노드 | 12비트 같은 밀리초 안의 순번
+ * insert 전에 메모리에서 바로 만들기 때문에 시퀀스 조회가 없고, 시간순이라 PK 인덱스 끝에만 추가됨. (UUID처럼 인덱스 중간에 끼어들지 않음)
+ * 노드 번호(querydsl.id.node)가 없으면 시작할 때 실패함. (기본값 0으로 두면 여러 서버가 같은 id를 만들 수 있음)
+ *
+ * 한 밀리초에 4096개를 넘거나 시계가 뒤로 가면 기다리지 않고 마지막 시각에서 이어서 발급함. (순번을 다 쓰면 다음 밀리초를 미리 씀)
+ * 그렇게 앞서간 시각이 실제 시계보다 MAX_DRIFT_MILLIS 이상 앞서면 IllegalStateException. (락을 잡은 채 시계를 기다리지 않음)
+ */
+public class TimeOrderedIdGenerator implements BeforeExecutionGenerator {
+
+    public static final String NODE_SETTING = "querydsl.id.node";
+
+    private static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+    static final long MAX_DRIFT_MILLIS = 1_000;
+
+    private final long node;
+    private final LongSupplier clock;
+    private long lastMillis = -1;
+    private long sequence;
+
+    public TimeOrderedIdGenerator(TimeOrderedId config, Member member, CustomIdGeneratorCreationContext context) {
+        this(requireNode(context.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSetting(NODE_SETTING, StandardConverters.INTEGER)));
+    }
+
+    TimeOrderedIdGenerator(long node) {
+        this(node, System::currentTimeMillis);
+    }
+
+    TimeOrderedIdGenerator(long node, LongSupplier clock) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException(NODE_SETTING + " must be between 0 and " + MAX_NODE + ": " + node);
+        }
+        this.node = node;
+        this.clock = clock;
+    }
+
+    static long requireNode(Integer node) {
+        if (node == null) {
+            throw new IllegalStateException(NODE_SETTING + " is not set (spring.jpa.properties." + NODE_SETTING + ", 0-" + MAX_NODE + ", unique per server)");
+        }
+        return node;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return nextId();
+    }
+
+    synchronized long nextId() {
+        long now = clock.getAsLong();
+        if (now > lastMillis) {
+            lastMillis = now;
+            sequence = 0;
+        } else {
+            // 같은 밀리초이거나 시계가 뒤로 감 : 마지막 시각에서 이어서
+            sequence = (sequence + 1) & MAX_SEQUENCE;
+            if (sequence == 0) {
+                if (lastMillis - now >= MAX_DRIFT_MILLIS) {
+                    throw new IllegalStateException("Clock is " + (lastMillis - now) + " ms behind the last issued id (clock moved backwards)");
+                }
+                lastMillis++;
+            }
+        }
+        return ((lastMillis - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+}
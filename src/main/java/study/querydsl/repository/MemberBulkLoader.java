@@ -0,0 +1,191 @@
+package study.querydsl.repository;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberRow;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.InvalidImportRowException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 회원 대량 적재
+ * em.persist()를 한 건씩 하되 chunkSize 마다 트랜잭션을 커밋하고 영속성 컨텍스트를 비움.
+ * -> hibernate.jdbc.batch_size + order_inserts 설정으로 insert가 JDBC 배치로 묶여서 나감. (application.yml 참고)
+ * -> id는 시퀀스를 allocationSize 만큼 한 번에 가져오는 pooled 방식이라 건마다 시퀀스 조회를 하지 않음.
+ * -> 카운트 캐시는 청크가 커밋될 때마다 MemberCountCacheEvictor가 비움.
+ */
+@Repository
+public class MemberBulkLoader {
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public MemberBulkLoader(EntityManager em,
+                            PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper,
+                            @Value("${querydsl.bulk.chunk-size:1000}") int chunkSize) {
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    public Result load(Stream<MemberRow> rows) {
+        long start = System.nanoTime();
+        long loaded = 0;
+        Map<String, Long> teamIds = new HashMap<>();
+
+        Iterator<MemberRow> iterator = rows.iterator();
+        List<MemberRow> chunk = new ArrayList<>(chunkSize);
+        while (true) {
+            // 스트림이 지연 실행이라 hasNext()/next()에서 행을 읽고 파싱함 -> 실패하면 지금까지 커밋된 건수를 같이 알려줌
+            try {
+                if (!iterator.hasNext()) {
+                    break;
+                }
+                chunk.add(iterator.next());
+            } catch (RowParseException e) {
+                throw new InvalidImportRowException(e.line, loaded, e.getCause());
+            }
+            if (chunk.size() == chunkSize) {
+                loaded += insertChunk(chunk, teamIds);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            loaded += insertChunk(chunk, teamIds);
+        }
+
+        return new Result(loaded, System.nanoTime() - start);
+    }
+
+    // username,age,teamName (첫 줄이 헤더면 건너뜀)
+    // 읽을 수 없는 행이 있으면 InvalidImportRowException (줄 번호는 헤더, 빈 줄 포함 1부터)
+    public Result loadCsv(BufferedReader reader) {
+        AtomicLong lineNumber = new AtomicLong();
+        try (Stream<String> lines = reader.lines()) {
+            return load(lines
+                    .peek(line -> lineNumber.incrementAndGet())
+                    .filter(StringUtils::hasText)
+                    .filter(line -> !line.startsWith("username,"))
+                    .map(line -> parse(line, lineNumber.get(), this::parseCsv)));
+        }
+    }
+
+    public Result loadNdjson(BufferedReader reader) {
+        AtomicLong lineNumber = new AtomicLong();
+        try (Stream<String> lines = reader.lines()) {
+            return load(lines
+                    .peek(line -> lineNumber.incrementAndGet())
+                    .filter(StringUtils::hasText)
+                    .map(line -> parse(line, lineNumber.get(), this::parseJson)));
+        }
+    }
+
+    // 청크가 롤백되면 그 청크에서 만든 팀도 없어지므로 캐시해둔 팀 id를 비움 (다음에 다시 조회/생성)
+    private int insertChunk(List<MemberRow> chunk, Map<String, Long> teamIds) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (MemberRow row : chunk) {
+                    Member member = new Member(row.username(), row.age());
+                    if (StringUtils.hasText(row.teamName())) {
+                        // 팀은 getReference() 프록시라 생성자/changeTeam()을 쓰면 팀 회원 컬렉션 확인 때문에 프록시가 초기화됨. 연관관계만 세팅
+                        member.setTeam(findOrCreateTeam(row.teamName(), teamIds));
+                    }
+                    em.persist(member);
+                }
+                em.flush();
+                em.clear();
+            });
+        } catch (RuntimeException | Error e) {
+            teamIds.clear();
+            throw e;
+        }
+        return chunk.size();
+    }
+
+    private Team findOrCreateTeam(String teamName, Map<String, Long> teamIds) {
+        Long teamId = teamIds.get(teamName);
+        if (teamId != null) {
+            return em.getReference(Team.class, teamId);
+        }
+
+        Team team = em.createQuery("select t from Team t where t.name = :name", Team.class)
+                .setParameter("name", teamName)
+                .setMaxResults(1)
+                .getResultStream()
+                .findFirst()
+                .orElseGet(() -> {
+                    Team newTeam = new Team(teamName);
+                    em.persist(newTeam);
+                    return newTeam;
+                });
+        teamIds.put(teamName, team.getId());
+        return team;
+    }
+
+    private MemberRow parse(String line, long lineNumber, Function<String, MemberRow> parser) {
+        try {
+            return parser.apply(line);
+        } catch (RuntimeException e) {
+            throw new RowParseException(lineNumber, e);
+        }
+    }
+
+    private MemberRow parseCsv(String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length < 2) {
+            throw new IllegalArgumentException("잘못된 CSV 행입니다: " + line);
+        }
+        String teamName = columns.length > 2 ? columns[2].trim() : null;
+        return new MemberRow(columns[0].trim(), Integer.parseInt(columns[1].trim()), teamName);
+    }
+
+    private MemberRow parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, MemberRow.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // load() 안에서 지금까지 커밋된 건수를 붙여 InvalidImportRowException으로 바꿈
+    private static class RowParseException extends RuntimeException {
+
+        private final long line;
+
+        RowParseException(long line, RuntimeException cause) {
+            super(cause);
+            this.line = line;
+        }
+    }
+
+    public record Result(long rows, long elapsedNanos) {
+
+        @JsonProperty // 레코드 컴포넌트가 아니라서 붙여야 응답에 나감
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+
+}
@@ -0,0 +1,188 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.repository.support.MemberCountCache;
+import study.querydsl.repository.support.TeamStatsReconciler;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongBinaryOperator;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 나눠서 실행하는 벌크 수정/삭제
+ * update(member).where(...).execute() 한 방은 대상 row 전체에 락을 오래 잡고 언두 로그가 커짐.
+ * member.id 범위(chunkSize)로 잘라서 범위마다 트랜잭션을 커밋하고, 필요하면 범위 사이에 쉬어감(pause).
+ *
+ * - where 조건은 member 컬럼만 사용해야 함. (JPQL 벌크 연산은 조인 불가)
+ * - 이미 트랜잭션 안에서 호출하면 그 트랜잭션에 참여하기 때문에 범위별 커밋은 되지 않음.
+ * - 벌크 연산은 영속성 컨텍스트를 무시하고 DB에 바로 반영되기 때문에 끝나면 em.clear()로 비워줌. (QuerydslBasicTest.bulkUpdate 참고)
+ * - 엔티티 이벤트도 발생하지 않기 때문에 끝나면 바뀐 팀의 team_stats만 다시 계산함.
+ *   범위마다 대상 회원 id를 먼저 읽어서 변경 전 팀을 모으고, 수정이면 변경 후 팀도 모음. (setter가 팀을 바꿀 수도 있어서)
+ * - 중간 범위에서 실패하면 그 범위만 롤백되고 앞 범위는 커밋된 채로 남음. 커밋된 만큼 카운트 캐시/team_stats를 맞춘 뒤 예외를 그대로 던짐.
+ */
+@Slf4j
+@Repository
+public class MemberBulkUpdater {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final MemberCountCache countCache;
+    private final TeamStatsReconciler teamStatsReconciler;
+    private final int chunkSize;
+    private final Duration pause;
+
+    public MemberBulkUpdater(EntityManager em,
+                             JPAQueryFactory queryFactory,
+                             PlatformTransactionManager transactionManager,
+                             MemberCountCache countCache,
+                             TeamStatsReconciler teamStatsReconciler,
+                             @Value("${querydsl.bulk.update-chunk-size:1000}") int chunkSize,
+                             @Value("${querydsl.bulk.pause:0ms}") Duration pause) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.countCache = countCache;
+        this.teamStatsReconciler = teamStatsReconciler;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+    }
+
+    // ex) update(member.age.lt(28), clause -> clause.set(member.username, "비회원"))
+    public Progress update(Predicate where, Consumer<JPAUpdateClause> setter) {
+        return update(where, setter, chunkSize, progress -> {});
+    }
+
+    public Progress update(Predicate where, Consumer<JPAUpdateClause> setter, int chunkSize, Consumer<Progress> listener) {
+        return execute(where, chunkSize, listener, true, (from, to) -> {
+            JPAUpdateClause clause = queryFactory.update(member);
+            setter.accept(clause);
+            return clause
+                    .where(where, member.id.between(from, to))
+                    .execute();
+        });
+    }
+
+    public Progress delete(Predicate where) {
+        return delete(where, chunkSize, progress -> {});
+    }
+
+    public Progress delete(Predicate where, int chunkSize, Consumer<Progress> listener) {
+        return execute(where, chunkSize, listener, false, (from, to) -> queryFactory
+                .delete(member)
+                .where(where, member.id.between(from, to))
+                .execute());
+    }
+
+    private Progress execute(Predicate where, int chunkSize, Consumer<Progress> listener, boolean teamMayChange, LongBinaryOperator chunk) {
+        long start = System.nanoTime();
+
+        NumberExpression<Long> min = member.id.min();
+        NumberExpression<Long> max = member.id.max();
+        Tuple range = queryFactory
+                .select(min, max)
+                .from(member)
+                .where(where)
+                .fetchOne();
+        Long minId = range == null ? null : range.get(min);
+        Long maxId = range == null ? null : range.get(max);
+        if (minId == null || maxId == null) {
+            return new Progress(0, 0, 0, System.nanoTime() - start);
+        }
+
+        long totalChunks = (maxId - minId) / chunkSize + 1;
+        long rows = 0;
+        long chunks = 0;
+        Set<Long> teamIds = new HashSet<>();
+        try {
+            for (long from = minId; from <= maxId; from += chunkSize) {
+                long to = Math.min(from + chunkSize - 1, maxId);
+                long fromId = from;
+                Long affected = transactionTemplate.execute(status -> {
+                    List<Long> memberIds = queryFactory
+                            .select(member.id)
+                            .from(member)
+                            .where(where, member.id.between(fromId, to))
+                            .fetch();
+                    if (memberIds.isEmpty()) {
+                        return 0L;
+                    }
+                    teamIds.addAll(teamIdsOf(memberIds));
+                    long updated = chunk.applyAsLong(fromId, to);
+                    if (teamMayChange) {
+                        teamIds.addAll(teamIdsOf(memberIds));
+                    }
+                    return updated;
+                });
+                rows += affected == null ? 0 : affected;
+                chunks++;
+
+                Progress progress = new Progress(rows, chunks, totalChunks, System.nanoTime() - start);
+                listener.accept(progress);
+                log.debug("벌크 진행 {}/{} 청크, {} rows ({} rows/s)", chunks, totalChunks, rows, (long) progress.rowsPerSecond());
+                sleep();
+            }
+        } catch (RuntimeException e) {
+            try {
+                afterChunks(teamIds);
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+
+        afterChunks(teamIds);
+        return new Progress(rows, chunks, totalChunks, System.nanoTime() - start);
+    }
+
+    // 벌크 연산 결과는 영속성 컨텍스트에 반영되지 않으므로 비움. (카운트 캐시도)
+    private void afterChunks(Set<Long> teamIds) {
+        em.clear();
+        countCache.evictAfterTransaction(); // 바깥 트랜잭션에 참여했으면 그 트랜잭션이 끝난 뒤
+        teamStatsReconciler.reconcile(teamIds);
+    }
+
+    // 팀 없는 회원은 제외
+    private List<Long> teamIdsOf(List<Long> memberIds) {
+        return queryFactory
+                .selectDistinct(member.team.id)
+                .from(member)
+                .where(member.id.in(memberIds), member.team.isNotNull())
+                .fetch();
+    }
+
+    private void sleep() {
+        if (pause.isZero() || pause.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("벌크 작업이 중단되었습니다.", e);
+        }
+    }
+
+    public record Progress(long rows, long chunks, long totalChunks, long elapsedNanos) {
+
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+
+}
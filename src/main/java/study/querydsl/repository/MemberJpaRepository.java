@@ -1,35 +1,49 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Predicate;
-import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
-import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
+import study.querydsl.repository.support.MemberSearchPredicates;
+import study.querydsl.repository.support.MemberSearchQueryCache;
+import study.querydsl.repository.support.SearchTooBroadException;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-import static io.micrometer.common.util.StringUtils.isEmpty;
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
 
 @Repository
-@RequiredArgsConstructor
+@Transactional(readOnly = true, timeoutString = "${querydsl.query.timeout:5}") // 조회는 읽기 전용 (읽기/쓰기 분리 시 레플리카로 감), 쓰기 메서드만 @Transactional. timeout이 지나면 DB에서 쿼리 취소
 public class MemberJpaRepository {
     // 동시성 문제 x : 스프링과 엮어서 들어가면 트랜잭션 별로 다른 객체(프록시)를 줌.
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueryCache searchQueryCache;
+
+    public MemberJpaRepository(EntityManager em, JPAQueryFactory queryFactory, MemberSearchQueryCache searchQueryCache) {
+        this.em = em;
+        this.queryFactory = queryFactory;
+        this.searchQueryCache = searchQueryCache;
+    }
 
     // 빈으로 등록 했으면 EntityManager나 JPAQueryFactory 아무나 쓰고 싶은거 쓰면 됨.
 //    public MemberJpaRepository(EntityManager em) {
@@ -42,8 +56,9 @@ public class MemberJpaRepository {
         this.queryFactory = queryFactory;
     }*/
 
+    @Transactional
     public void save(Member member) {
-        em.persist(member);
+        em.persist(member); // 카운트 캐시는 커밋 후 MemberCountCacheEvictor가 비움
     }
 
     public Optional<Member> findById(Long id) {
@@ -110,39 +125,59 @@ public class MemberJpaRepository {
 
     // 일단 이 방식을 권장.(where를 하나로 묶지 말고, 다른 곳에서도 쓸 수 있게)
     // 반환 타입이 Member로 바껴도 queryFactory 문만 수정 해주면 사용 가능.
+    // 조건 모양별로 한 번만 직렬화해둔 JPQL에 값만 바인딩 (MemberSearchQueryCache, where 절은 MemberSearchPredicates)
+    // 최대 querydsl.query.max-rows 건까지만 조회 (넘으면 SearchTooBroadException)
     public List<MemberTeamDto> searchByWhere(MemberSearchCondition condition) {
-        return queryFactory
+        return searchQueryCache.fetch(condition);
+    }
+
+    // 전체를 List로 올리지 않고 JDBC 커서로 한 줄씩 읽음. (fetchSize 만큼씩 DB에서 가져옴)
+    // 반드시 트랜잭션 안에서 사용하고, 다 쓰면 close() 해야 커넥션이 반납됨. (try-with-resources)
+    public Stream<MemberTeamDto> streamByWhere(MemberSearchCondition condition, int fetchSize) {
+        JPAQuery<MemberTeamDto> query = queryFactory
                 .select(new QMemberTeamDto(member.id,
                         member.username,
                         member.age,
                         team.id,
                         team.name))
                 .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .fetch();
-
+                .leftJoin(member.team, team);
+        return MemberSearchPredicates.apply(query, condition)
+                .orderBy(member.id.asc())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .stream();
     }
 
-    // StringUtils.hasText()로 해도 됨.
-    // 빈환 타입을 BooleanExpression으로 해두면 and로 where 연결 가능
-    private BooleanExpression usernameEq(String username) {
-        return isEmpty(username) ? null : member.username.eq(username);
-    }
-
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
-    }
-
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
-    }
-
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    // 대량 조회용 : row마다 MemberTeamDto를 만들지 않고 커서로 읽으면서 컬럼 배열(MemberTeamColumns)에 바로 담음.
+    // 최대 maxRows 건까지만 (넘으면 읽다가 멈추고 SearchTooBroadException)
+    // 대량이라 검색 timeout(querydsl.query.timeout) 대신 내보내기 timeout을 씀. (이미 트랜잭션이 있으면 그 트랜잭션의 timeout)
+    @Transactional(readOnly = true, timeoutString = "${querydsl.export.timeout:60}")
+    public MemberTeamColumns searchColumns(MemberSearchCondition condition, int maxRows, int fetchSize) {
+        JPAQuery<Tuple> query = queryFactory
+                .select(member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name)
+                .from(member)
+                .leftJoin(member.team, team);
+        MemberSearchPredicates.apply(query, condition)
+                .orderBy(member.id.asc())
+                .limit(maxRows + 1L)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+
+        MemberTeamColumns columns = new MemberTeamColumns(Math.min(maxRows, 1024));
+        try (Stream<Tuple> rows = query.stream()) {
+            Iterator<Tuple> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                if (columns.size() == maxRows) {
+                    throw new SearchTooBroadException(maxRows);
+                }
+                Tuple row = iterator.next();
+                columns.add(row.get(member.id), row.get(member.username), row.get(member.age), row.get(team.id), row.get(team.name));
+            }
+        }
+        return columns;
     }
 
 }
@@ -1,7 +1,10 @@
 package study.querydsl.repository;
 
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
 
 import java.util.List;
@@ -9,6 +12,10 @@ import java.util.List;
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, QuerydslPredicateExecutor<Member> {
 
     // select m from Member m where m.username = ?
+    // 쿼리 결과 캐시 : member 테이블에 쓰기(save, 변경 감지, 벌크 수정)가 일어나면 하이버네이트가 자동으로 무효화
+    // 캐시에는 id만 들어있고 엔티티는 Member 2차 캐시에서 꺼냄. (적중하면 SQL 없음)
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    @Transactional(readOnly = true)
     List<Member> findByUsername(String username);
 
 
@@ -4,6 +4,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamSlice;
 
 import java.util.List;
 
@@ -15,4 +16,12 @@ public interface MemberRepositoryCustom {
 
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
 
+    Page<MemberTeamDto> searchPageApproximate(MemberSearchCondition condition, Pageable pageable);
+
+    // offset 없이 마지막으로 본 member.id 다음부터 조회 (키셋 페이징)
+    MemberTeamSlice searchSlice(MemberSearchCondition condition, String cursor, int size);
+
+    // 여러 검색 조건을 한 번에 조회. 결과는 조건 순서대로 반환
+    List<List<MemberTeamDto>> searchBatch(List<MemberSearchCondition> conditions);
+
 }
@@ -1,29 +1,53 @@
 package study.querydsl.repository;
 
+import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.JPQLQuery;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamSlice;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.CountQueryExecutor;
+import study.querydsl.repository.support.InvalidSearchParameterException;
+import study.querydsl.repository.support.KeysetCursor;
+import study.querydsl.repository.support.MemberCountCache;
+import study.querydsl.repository.support.MemberSearchPredicates;
+import study.querydsl.repository.support.MemberSearchQueryCache;
+import study.querydsl.repository.support.SearchTooBroadException;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
-import static io.micrometer.common.util.StringUtils.isEmpty;
-import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
 
 // extends QuerydslRepositorySupport
+// 조회 전용이라 읽기 전용 트랜잭션 (읽기/쓰기 분리 시 레플리카로 감)
+// 트랜잭션 timeout이 이 안에서 만드는 쿼리마다 JDBC statement timeout으로 걸림. (시간이 지나면 DB에서 쿼리 취소)
+@Transactional(readOnly = true, timeoutString = "${querydsl.query.timeout:5}")
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     // QuerydslRepositorySupport를 상속 받으면 이 안에 Entitymanager를 갖고 있어서 따로 주입 안해도 됨.
@@ -32,74 +56,58 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 //        this.queryFactory = new JPAQueryFactory(em);
 //    }
 
+    // searchBatch 조건별 일치 여부 컬럼 (파라미터가 아니라 SQL에 1/0이 그대로 들어감)
+    private static final NumberExpression<Integer> MATCHED = Expressions.numberTemplate(Integer.class, "1");
+    private static final NumberExpression<Integer> NOT_MATCHED = Expressions.numberTemplate(Integer.class, "0");
+
     private final JPAQueryFactory queryFactory;
+    private final CountQueryExecutor countQueryExecutor;
+    private final MemberCountCache countCache;
+    private final MemberSearchQueryCache searchQueryCache;
+    private final boolean strictSort;
+    private final int maxBatchConditions;
+    private final int maxRows;
 
-    public MemberRepositoryImpl(JPAQueryFactory queryFactory) {
+    public MemberRepositoryImpl(JPAQueryFactory queryFactory, CountQueryExecutor countQueryExecutor,
+                                MemberCountCache countCache, MemberSearchQueryCache searchQueryCache,
+                                @Value("${querydsl.sort.strict:false}") boolean strictSort,
+                                @Value("${querydsl.batch.max-conditions:50}") int maxBatchConditions,
+                                @Value("${querydsl.query.max-rows:1000}") int maxRows) {
         this.queryFactory = queryFactory;
+        this.countQueryExecutor = countQueryExecutor;
+        this.countCache = countCache;
+        this.searchQueryCache = searchQueryCache;
+        this.strictSort = strictSort;
+        this.maxBatchConditions = maxBatchConditions;
+        this.maxRows = maxRows;
     }
 
     // 일단 이 방식을 권장.(where를 하나로 묶지 말고, 다른 곳에서도 쓸 수 있게)
     // 반환 타입이 Member로 바껴도 queryFactory 문만 수정 해주면 사용 가능.
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-
-        // 직접 엔티티 매니저를 이렇게 주입 받을 수 있음.
-//        EntityManager em = getEntityManager();
-
-        // QuerydslRepositorySupport를 활용한 방법
-/*        List<MemberTeamDto> result = from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")))
-                .fetch();*/
-
-        return queryFactory
-                .select(new QMemberTeamDto(member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .fetch();
+        // 조건 모양별로 만들어둔 JPQL을 재사용 (매 호출마다 Querydsl 쿼리 생성/JPQL 직렬화 비용 없음). 최대 querydsl.query.max-rows 건
+        return searchQueryCache.fetch(condition);
     }
 
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
         // 얘는 fetchResults()가 알아서 카운트 쿼리까지 하기 때문에 무조건 카운트 쿼리가 나감.
-        QueryResults<MemberTeamDto> results = queryFactory
-                .select(new QMemberTeamDto(member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+        JPAQuery<MemberTeamDto> query = MemberSearchPredicates.apply(selectMemberTeam(condition), condition)
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize()) // 한 번 조회할 때마다 몇 개 가져올 지
-                .fetchResults(); // fetch()를 쓰면 List<>로 데이터 컨텐츠를 바로 가져옴. fetchResults()로 가져오면 컨텐츠용 쿼리, 카운트용 쿼리 2개 나감.
+                .limit(pageable.getPageSize()); // 한 번 조회할 때마다 몇 개 가져올 지
+
+        // 같은 조건으로 센 카운트가 캐시에 있으면 컨텐츠 쿼리만 날림.
+        Long cachedTotal = countCache.getIfPresent(condition, false);
+        if (cachedTotal != null) {
+            return new PageImpl<>(query.fetch(), pageable, cachedTotal);
+        }
+
+        QueryResults<MemberTeamDto> results = query.fetchResults(); // fetch()를 쓰면 List<>로 데이터 컨텐츠를 바로 가져옴. fetchResults()로 가져오면 컨텐츠용 쿼리, 카운트용 쿼리 2개 나감.
 
         List<MemberTeamDto> content = results.getResults();
         long total = results.getTotal();
+        countCache.put(condition, total);
 
         return new PageImpl<>(content, pageable, total); // PageImpl은 Page의 구현체
     }
@@ -143,77 +151,166 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
     }*/
 
     // 카운트 쿼리 별도로 분리하기
+    // 컨텐트 쿼리와 카운트 쿼리를 동시에 날림. (응답 시간이 두 쿼리의 합이 아니라 느린 쪽에 맞춰짐)
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        return searchPage(condition, pageable, false);
+    }
+
+    // 전체 개수는 "약 N건" 정도만 필요할 때. 조금 오래된 카운트 캐시도 그대로 씀.
+    @Override
+    public Page<MemberTeamDto> searchPageApproximate(MemberSearchCondition condition, Pageable pageable) {
+        return searchPage(condition, pageable, true);
+    }
+
+    private Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable, boolean approximate) {
         // 컨텐트만 가져오기
-        List<MemberTeamDto> content = queryFactory
-                .select(new QMemberTeamDto(member.id,
-                        member.username,
-                        member.age,
-                        team.id,
-                        team.name))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+        // Querydsl sort는 조인이 없는 관계에서만 가능해서 orderBy()로 그냥 하는게 나음. -> MemberSorts에 허용한 속성만 경로로 바꿔서 orderBy()
+        JPAQuery<MemberTeamDto> contentQuery = MemberSearchPredicates.apply(selectMemberTeam(condition), condition)
+                .orderBy(MemberSorts.WHITELIST.toOrderSpecifiers(pageable.getSort(), strictSort)) // ?sort=teamName,desc 처럼 조인 경로도 DB에서 정렬
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-        // Querydsl sort는 조인이 없는 관계에서만 가능해서 orderBy()로 그냥 하는게 나음.
+                .limit(pageable.getPageSize());
 
         // 얘는 직접 TotalCountQuery를 날리기 (fetch()로 컨텐트를 가져오고 카운트 쿼리를 분리한 것.)
         // leftJoin이 필요 없을 때 이런 방식으로 하면 카운트 쿼리 최적화 가능.
-        // 혹은 카운트 쿼리 먼저 보고 없으면 컨텐트 쿼리를 안 날리려고 할 때
-        long total = queryFactory
-                .select(member)
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetchCount();
-
-        JPAQuery<Member> countQuery = queryFactory
-                .select(member)
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+        // 카운트는 팀 컬럼을 안 쓰기 때문에 팀 이름 조건이 없으면 조인 생략.
+        JPAQuery<Long> countQuery = queryFactory
+                .select(member.count())
+                .from(member);
+        if (needsTeamJoin(condition)) {
+            countQuery.join(member.team, team);
+        }
+        MemberSearchPredicates.apply(countQuery, condition);
 
 //        return new PageImpl<>(content, pageable, total);
         // 페이지 : 100이고 컨텐츠 양이 3인데 전체 카운트 쿼리 날리면 낭비니까 이렇게 컨텐츠 양이 페이지 양보다 적을 때 토탈 카운트를 씀.(페이지 시작이면서 컨텐츠 크기가 페이지 크기보다 작을 때)
         // -> 총 데이터 개수가 100개인데 110개 부르면 select 쿼리만 나가고 count 쿼리는 안나감.
         // 마지막 페이지 일 때(offset + 컨텐츠 사이즈를 더해서 전체 사이즈 구할 때)
-//        return PageableExecutionUtils.getPage(content, pageable, () -> countQuery.fetchCount());
-        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
+//        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+        Long cachedTotal = countCache.getIfPresent(condition, approximate);
+        if (cachedTotal != null) {
+            return PageableExecutionUtils.getPage(contentQuery.fetch(), pageable, () -> cachedTotal);
+        }
+
+        // 읽기 전용 트랜잭션이라 카운트는 별도 커넥션에서 컨텐트와 동시에 실행됨. 필요 없으면 skip/wasted로 기록.
+        return countQueryExecutor.fetchPage(pageable, contentQuery::fetch, () -> {
+            long total = countQuery.fetchOne();
+            countCache.put(condition, total);
+            return total;
+        });
+    }
+
+    // 키셋(seek) 페이징
+    // offset은 앞 페이지 row를 전부 읽고 버리기 때문에 뒤로 갈수록 느려짐. member.id > 커서 조건으로 인덱스를 타고 바로 시작 위치로 감.
+    // size + 1개를 조회해서 다음 페이지 존재 여부를 카운트 쿼리 없이 판단.
+    @Override
+    public MemberTeamSlice searchSlice(MemberSearchCondition condition, String cursor, int size) {
+        List<MemberTeamDto> content = MemberSearchPredicates.apply(selectMemberTeam(condition), condition)
+                .where(idGt(KeysetCursor.decode(cursor)))
+                .orderBy(member.id.asc())
+                .limit(size + 1)
+                .fetch();
+
+        if (content.size() <= size) {
+            return new MemberTeamSlice(content, null);
+        }
+
+        List<MemberTeamDto> page = content.subList(0, size);
+        return new MemberTeamSlice(page, KeysetCursor.encode(page.get(size - 1).getMemberId()));
+    }
+
+    // 같은 조건 모양(shape)끼리 묶어서 (조건1 or 조건2 or ...) 쿼리 하나로 조회하고, 결과를 조건별로 다시 나눠줌.
+    // 나누는 것도 DB에서 : 조건마다 case when 조건 then 1 else 0 컬럼을 같이 조회함. (문자열 비교를 DB 콜레이션 그대로. 메모리에서 equals로 다시 비교하지 않음)
+    // 전체가 한 트랜잭션(커넥션 하나) 안에서 모양 개수만큼만 쿼리가 나감. (쿼리가 여러 개라 timeout을 따로 줌)
+    // 조건마다 최대 maxRows 건이라 묶은 쿼리는 maxRows * 조건 수까지만 조회.
+    @Override
+    @Transactional(readOnly = true, timeoutString = "${querydsl.query.batch-timeout:10}")
+    public List<List<MemberTeamDto>> searchBatch(List<MemberSearchCondition> conditions) {
+        if (conditions.size() > maxBatchConditions) {
+            throw new InvalidSearchParameterException("검색 조건은 최대 " + maxBatchConditions + "개까지 가능합니다: " + conditions.size());
+        }
+        if (conditions.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidSearchParameterException("검색 조건 목록에 null이 있습니다.");
+        }
+
+        Map<String, List<MemberSearchCondition>> byShape = conditions.stream()
+                .distinct()
+                .collect(Collectors.groupingBy(MemberSearchPredicates::shapeName, LinkedHashMap::new, Collectors.toList()));
+
+        Map<MemberSearchCondition, List<MemberTeamDto>> results = new HashMap<>();
+        for (List<MemberSearchCondition> group : byShape.values()) {
+            BooleanBuilder anyOf = new BooleanBuilder();
+            List<Expression<?>> columns = new ArrayList<>(List.of(member.id, member.username, member.age, team.id, team.name));
+            int flagOffset = columns.size(); // 여기부터 조건별 일치 여부 (1/0)
+            for (MemberSearchCondition condition : group) {
+                // 조건마다 다른 식. 미리 만든 where 절(Param)은 이름이 겹쳐서 못 씀. (값은 그대로 JDBC 파라미터로 바인딩됨)
+                Predicate predicate = MemberSearchPredicates.literal(condition);
+                if (predicate == null) {
+                    columns.add(MATCHED); // 조건이 없으면(모양 none) 모든 row가 일치
+                    continue;
+                }
+                anyOf.or(predicate);
+                columns.add(new CaseBuilder().when(predicate).then(MATCHED).otherwise(NOT_MATCHED));
+            }
+
+            // 같은 모양이라 조인 여부도 같음. 모양 none이면 anyOf가 비어서 where 없음
+            long limit = (long) maxRows * group.size();
+            List<Tuple> rows = joinTeam(queryFactory.select(columns.toArray(Expression[]::new)).from(member), group.get(0))
+                    .where(anyOf.hasValue() ? anyOf : null)
+                    .limit(limit + 1)
+                    .fetch();
+            if (rows.size() > limit) {
+                throw new SearchTooBroadException(maxRows);
+            }
+
+            List<List<MemberTeamDto>> matched = new ArrayList<>();
+            group.forEach(condition -> matched.add(new ArrayList<>()));
+            for (Tuple row : rows) {
+                MemberTeamDto dto = new MemberTeamDto(row.get(member.id), row.get(member.username), row.get(member.age),
+                        row.get(team.id), row.get(team.name));
+                for (int i = 0; i < group.size(); i++) {
+                    if (row.get(flagOffset + i, Number.class).intValue() == 1) { // 한 row가 여러 조건에 걸릴 수 있음
+                        matched.get(i).add(dto);
+                    }
+                }
+            }
+            for (int i = 0; i < group.size(); i++) {
+                if (matched.get(i).size() > maxRows) {
+                    throw new SearchTooBroadException(maxRows);
+                }
+                results.put(group.get(i), matched.get(i));
+            }
+        }
+
+        return conditions.stream()
+                .map(results::get)
+                .toList();
     }
 
-    // StringUtils.hasText()로 해도 됨.
-    // 빈환 타입을 BooleanExpression으로 해두면 and로 where 연결 가능
-    private BooleanExpression usernameEq(String username) {
-        return isEmpty(username) ? null : member.username.eq(username);
+    // select + team 조인까지. 검색 조건은 MemberSearchPredicates.apply()로 붙임. (모양별로 미리 만들어둔 where 절에 값만 바인딩)
+    private JPAQuery<MemberTeamDto> selectMemberTeam(MemberSearchCondition condition) {
+        return joinTeam(queryFactory
+                .select(new QMemberTeamDto(member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member), condition);
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+    // 팀 이름 조건이 있을 때만 team 조인이 필요함.
+    private boolean needsTeamJoin(MemberSearchCondition condition) {
+        return MemberSearchPredicates.needsTeamJoin(condition);
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    // 팀 이름 조건이 있으면 left join이어도 결과는 inner join과 같음.
+    // inner join으로 바꿔주면 DB가 team 쪽 인덱스(idx_team_name)부터 타고 들어갈 수 있음. (left join은 member부터 풀 스캔)
+    private <T> JPAQuery<T> joinTeam(JPAQuery<T> query, MemberSearchCondition condition) {
+        return needsTeamJoin(condition) ? query.join(member.team, team) : query.leftJoin(member.team, team);
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    private BooleanExpression idGt(Long lastId) {
+        return lastId != null ? member.id.gt(lastId) : null;
     }
 
 }
@@ -0,0 +1,34 @@
+package study.querydsl.repository;
+
+import study.querydsl.repository.support.SortWhitelist;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 회원 검색에서 ?sort= 로 받을 수 있는 속성
+ * WHITELIST : MemberTeamDto를 조회하는 검색 (DTO 필드 이름 기준)
+ * ENTITY_WHITELIST : Member 엔티티를 페이징하는 리포지토리 (엔티티 속성 경로 기준, Querydsl 기본 정렬과 같은 이름)
+ */
+final class MemberSorts {
+
+    static final SortWhitelist WHITELIST = SortWhitelist.builder()
+            .indexed("memberId", member.id)
+            .indexed("username", member.username)
+            .indexed("age", member.age)
+            .indexed("teamId", member.team.id) // FK 컬럼이라 조인 없이 정렬
+            .allowed("teamName", team.name) // team.name 인덱스는 조인 결과 정렬에는 못 씀 (조인 후 정렬)
+            .build();
+
+    static final SortWhitelist ENTITY_WHITELIST = SortWhitelist.builder()
+            .indexed("id", member.id)
+            .indexed("username", member.username)
+            .indexed("age", member.age)
+            .indexed("team.id", member.team.id)
+            .allowed("team.name", team.name)
+            .build();
+
+    private MemberSorts() {
+    }
+
+}
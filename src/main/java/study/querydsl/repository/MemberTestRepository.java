@@ -1,6 +1,5 @@
 package study.querydsl.repository;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,19 +7,18 @@ import org.springframework.data.support.PageableExecutionUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
+import study.querydsl.repository.support.MemberSearchPredicates;
 import study.querydsl.repository.support.Querydsl4RepositorySupport;
 
 import java.util.List;
 
-import static io.micrometer.common.util.StringUtils.isEmpty;
-import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.team;
 
 public class MemberTestRepository extends Querydsl4RepositorySupport {
 
     public MemberTestRepository() {
-        super(Member.class);
+        super(Member.class, MemberSorts.ENTITY_WHITELIST); // 엔티티를 페이징하니까 엔티티 속성 이름(?sort=id, ?sort=team.name)
     }
 
     public List<Member> basicSelect() {
@@ -35,15 +33,11 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
     }
 
     public Page<Member> searchPageByApplyPage(MemberSearchCondition condition, Pageable pageable) {
-        JPAQuery<Member> query = selectFrom(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                );
+        // 컨텐트가 Member만 쓰기 때문에 팀 이름 조건이나 팀 이름 정렬이 있을 때만 조인
+        JPAQuery<Member> query = MemberSearchPredicates.apply(
+                joinTeam(condition, pageable, selectFrom(member)), condition);
 
-        List<Member> content = getQuerydsl().applyPagination(pageable, query)
+        List<Member> content = paginate(pageable, query)
                 .fetch();
 
         return PageableExecutionUtils.getPage(content, pageable, query::fetchCount);
@@ -51,50 +45,34 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
 
     // 쿼리문을 날려서 QueryFactory가 실행 시켜주고 fetch()로 컨텐트를 받고 PageableExecutionUtils.getPage()로 넘겨서 total, Count Query 받기
     public Page<Member> applyPagination(MemberSearchCondition condition, Pageable pageable) {
-        return applyPagination(pageable, query -> query
-                .selectFrom(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
+        return applyPagination(pageable, query -> MemberSearchPredicates.apply(
+                joinTeam(condition, pageable, query.selectFrom(member)), condition)
         );
     }
 
     public Page<Member> applyPagination2(MemberSearchCondition condition, Pageable pageable) {
-        return applyPagination(pageable, contentQuery -> contentQuery // 컨텐트용 쿼리
-                .selectFrom(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-
-                ), countQuery -> countQuery // 카운트용 쿼리
-                .select(member.id)
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
+        return applyPagination(pageable, contentQuery -> MemberSearchPredicates.apply( // 컨텐트용 쿼리
+                joinTeam(condition, pageable, contentQuery.selectFrom(member)), condition),
+                countQuery -> MemberSearchPredicates.apply( // 카운트용 쿼리
+                joinTeam(condition, Pageable.unpaged(), countQuery.select(member.id).from(member)), condition)
         );
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return isEmpty(username) ? null : member.username.eq(username);
-    }
-
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
-    }
-
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    // id만 먼저 페이징하고 엔티티는 팀까지 fetch join 해서 id IN (...)으로 조회 (순서는 id 쿼리 기준)
+    public Page<Member> searchPageByIds(MemberSearchCondition condition, Pageable pageable) {
+        return applyIdPagination(pageable,
+                idQuery -> MemberSearchPredicates.apply(
+                        joinTeam(condition, pageable, idQuery.select(member.id).from(member)), condition),
+                ids -> selectFrom(member)
+                        .leftJoin(member.team, team).fetchJoin()
+                        .where(member.id.in(ids)),
+                Member::getId
+        );
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    // 팀 이름 조건이 있으면 inner join, team 경로로 정렬만 하면 left join, 둘 다 없으면 조인 생략 (카운트 쿼리는 정렬이 없으니 unpaged)
+    private <T> JPAQuery<T> joinTeam(MemberSearchCondition condition, Pageable pageable, JPAQuery<T> query) {
+        return toOneJoin(MemberSearchPredicates.needsTeamJoin(condition), sortRequiresJoin(pageable, team),
+                query, member.team, team);
     }
 }
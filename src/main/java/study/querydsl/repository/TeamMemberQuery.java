@@ -0,0 +1,83 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamSlice;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.support.KeysetCursor;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 팀 회원 목록 조회 (Team.members 컬렉션을 통째로 로딩하는 대신)
+ * team_id + member.id 순서로 키셋 페이징 -> idx_member_team_id 인덱스만 타고 페이지 크기만큼 읽음.
+ */
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true, timeoutString = "${querydsl.query.timeout:5}")
+public class TeamMemberQuery {
+
+    private final JPAQueryFactory queryFactory;
+
+    // cursor는 이전 응답의 nextCursor (첫 페이지는 null)
+    public MemberTeamSlice findMembers(Long teamId, String cursor, int size) {
+        List<MemberTeamDto> content = selectMembers(teamId)
+                .where(idGt(KeysetCursor.decode(cursor)))
+                .orderBy(member.id.asc())
+                .limit(size + 1)
+                .fetch();
+
+        if (content.size() <= size) {
+            return new MemberTeamSlice(content, null);
+        }
+
+        List<MemberTeamDto> page = content.subList(0, size);
+        return new MemberTeamSlice(page, KeysetCursor.encode(page.get(size - 1).getMemberId()));
+    }
+
+    // 전체를 순서대로 훑어야 할 때 (fetchSize 만큼씩 DB에서 가져옴)
+    // 반드시 트랜잭션 안에서 사용하고, 다 쓰면 close() 해야 커넥션이 반납됨. (try-with-resources)
+    public Stream<MemberTeamDto> streamMembers(Long teamId, int fetchSize) {
+        return selectMembers(teamId)
+                .orderBy(member.id.asc())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .stream();
+    }
+
+    public long countMembers(Long teamId) {
+        Long count = queryFactory
+                .select(member.count())
+                .from(member)
+                .where(member.team.id.eq(teamId))
+                .fetchOne();
+        return count != null ? count : 0;
+    }
+
+    // member.team.id는 FK 컬럼이라 where 절은 조인 없이 team_id로 바로 걸림
+    private JPAQuery<MemberTeamDto> selectMembers(Long teamId) {
+        return queryFactory
+                .select(new QMemberTeamDto(member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name))
+                .from(member)
+                .join(member.team, team)
+                .where(member.team.id.eq(teamId));
+    }
+
+    private BooleanExpression idGt(Long lastId) {
+        return lastId != null ? member.id.gt(lastId) : null;
+    }
+
+}
@@ -0,0 +1,52 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.QTeamStatsDto;
+import study.querydsl.dto.TeamStatsDto;
+
+import java.util.List;
+
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.entity.QTeamStats.teamStats;
+
+/**
+ * 팀별 나이 통계 조회 (QuerydslBasicTest.group, aggregation 처럼 매번 member 전체를 group by 하지 않고 team_stats에서 읽음)
+ * 회원 수와 상관 없이 팀 하나당 row 하나. 갱신은 TeamStatsEventListener, 보정은 TeamStatsReconciler
+ */
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true, timeoutString = "${querydsl.query.timeout:5}")
+public class TeamStatsRepository {
+
+    private final JPAQueryFactory queryFactory;
+
+    public List<TeamStatsDto> findAll() {
+        return selectStats()
+                .orderBy(team.name.asc())
+                .fetch();
+    }
+
+    public TeamStatsDto findByTeamId(Long teamId) {
+        return selectStats()
+                .where(teamStats.teamId.eq(teamId))
+                .fetchOne();
+    }
+
+    // 삭제된 팀의 통계(reconcile 전)는 조인에서 빠짐
+    private JPAQuery<TeamStatsDto> selectStats() {
+        return queryFactory
+                .select(new QTeamStatsDto(teamStats.teamId,
+                        team.name,
+                        teamStats.memberCount,
+                        teamStats.ageSum,
+                        teamStats.ageMin,
+                        teamStats.ageMax))
+                .from(teamStats)
+                .join(team).on(team.id.eq(teamStats.teamId));
+    }
+
+}
@@ -0,0 +1,29 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.Querydsl4RepositorySupport;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+public class TeamTestRepository extends Querydsl4RepositorySupport {
+
+    public TeamTestRepository() {
+        super(Team.class);
+    }
+
+    // 컬렉션 fetch join + 페이징 : 팀 id만 먼저 페이징하고, 회원은 id IN (...)으로 조회할 때 fetch join
+    // 한 쿼리로 하면 팀 하나가 회원 수만큼 row가 돼서 하이버네이트가 limit 없이 전부 읽고 메모리에서 페이징함. (HHH90003004)
+    public Page<Team> searchPageWithMembers(Pageable pageable) {
+        return applyIdPagination(pageable,
+                idQuery -> idQuery.select(team.id).from(team),
+                ids -> selectFrom(team)
+                        .leftJoin(team.members, member).fetchJoin()
+                        .where(team.id.in(ids)),
+                Team::getId
+        );
+    }
+
+}
@@ -0,0 +1,77 @@
+package study.querydsl.repository.support;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 조회 쿼리를 서블릿(톰캣) 스레드 밖의 전용 스레드에서 실행
+ * 컨트롤러가 CompletableFuture를 반환하면 DB를 기다리는 동안 요청 스레드는 반납돼서 다른 요청을 받을 수 있음.
+ * 조회 자체는 여전히 블로킹 JDBC라서 이 스레드가 DB를 기다림. 동시에 처리할 수 있는 조회 수(= 스레드 수)가 늘어나지는 않음.
+ * 얻는 건 조회 폭주가 톰캣 스레드를 다 잡지 않는 것과, 한도를 넘으면 바로 503으로 거절하는 것. (AsyncSearchLoadBenchmark는 같은 스레드 수로 비교)
+ *
+ * 스레드 하나가 커넥션 하나를 쓰고, 페이징 카운트는 CountQueryExecutor 스레드가 커넥션을 따로 씀.
+ * 그래서 스레드 수 + 카운트 스레드 수(querydsl.count-query.pool-size, 기본 4) <= 커넥션 풀 크기(기본 10)로 둠. (기본 6)
+ * (카운트 스레드가 커넥션을 못 잡으면 호출한 스레드가 자기 커넥션에서 카운트를 실행해서 멈추지는 않음)
+ * 스레드가 커넥션보다 많으면 남는 스레드가 커넥션을 기다리다 Hikari connection-timeout(기본 30초) 뒤에 실패함. -> 바로 거절(503)되지 않음
+ * 대기 큐가 꽉 차면 호출한 스레드에서 실행하지 않고 바로 거절함. (CountQueryExecutor와 다르게 요청 스레드를 다시 잡지 않기 위해)
+ */
+@Component
+public class AsyncQueryExecutor {
+
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    public AsyncQueryExecutor(@Value("${querydsl.async.pool-size:6}") int poolSize,
+                              @Value("${querydsl.async.queue-capacity:200}") int queueCapacity) {
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "async-query-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * @throws QueryBusyException 실행 중 + 대기 중인 조회가 한도를 넘은 경우
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        try {
+            return CompletableFuture.supplyAsync(query, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            throw new QueryBusyException("비동기 조회 대기열이 꽉 찼습니다.", e);
+        }
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+}
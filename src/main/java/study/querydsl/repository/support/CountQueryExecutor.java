@@ -0,0 +1,201 @@
+package study.querydsl.repository.support;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 컨텐트 쿼리와 카운트 쿼리를 동시에 실행하는 페이징 도우미
+ * 카운트 쿼리는 별도 스레드(= 별도 커넥션)에서 미리 출발시키고, 컨텐트 쿼리는 호출한 스레드에서 실행한다.
+ * PageableExecutionUtils가 카운트가 필요 없다고 판단하면(첫 페이지/마지막 페이지) 카운트 결과를 버린다.
+ *
+ * 카운트 작업은 새 읽기 전용 트랜잭션(REQUIRES_NEW)에서 커넥션을 실제로 잡은 다음에 차지(claim)한다.
+ * 컨텐트가 끝났을 때 카운트 작업이 아직 차지하지 못했으면(대기 중이거나 커넥션을 기다리는 중) 호출한 스레드가 차지해서 자기 커넥션에서 카운트를 실행한다.
+ * -> 호출한 스레드는 커넥션을 이미 잡은 카운트 작업만 기다림. 풀이 말라도 서로 커넥션을 기다리며 멈추지 않음.
+ * 차지한 쪽이 없는데 카운트가 필요 없으면 쿼리를 보내지 않고 skip, 이미 실행을 시작한 카운트는 멈출 수 없어서 wasted로 기록한다.
+ *
+ * 카운트용 커넥션은 스레드 수(querydsl.count-query.pool-size)만큼만 더 쓴다. 대기 큐가 차면 호출한 스레드에서 순차 실행.
+ * 쓰기 트랜잭션 안에서 호출되면 다른 커넥션에서는 커밋 전 데이터가 안 보이기 때문에 그 커넥션에서 순차 실행한다.
+ * 읽기 전용 트랜잭션(MemberRepositoryImpl 클래스 레벨) 안에서는 병렬. 카운트도 읽기 전용이라 읽기/쓰기 분리 시 레플리카로 감.
+ */
+@Component
+public class CountQueryExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final DataSource dataSource;
+
+    private final LongAdder executedCount = new LongAdder();
+    private final LongAdder skippedCount = new LongAdder();
+    private final LongAdder wastedCount = new LongAdder();
+    private final LongAdder parallelCount = new LongAdder();
+
+    public CountQueryExecutor(PlatformTransactionManager transactionManager,
+                              DataSource dataSource,
+                              @Value("${querydsl.count-query.pool-size:4}") int poolSize,
+                              @Value("${querydsl.count-query.queue-capacity:100}") int queueCapacity,
+                              @Value("${querydsl.query.timeout:5}") int queryTimeout) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setTimeout(queryTimeout); // 리포지토리 쿼리와 같은 timeout
+        this.dataSource = dataSource;
+        AtomicInteger sequence = new AtomicInteger();
+        // 큐가 꽉 차면 거절 -> 호출한 스레드에서 순차 실행 (호출한 스레드에서 새 트랜잭션을 열면 커넥션을 2개 잡게 됨)
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "count-query-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public <T> Page<T> fetchPage(Pageable pageable, Supplier<List<T>> contentQuery, LongSupplier countQuery) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return toPage(contentQuery.get(), pageable, countQuery);
+        }
+
+        AtomicBoolean claimed = new AtomicBoolean();
+        CompletableFuture<Long> countFuture;
+        try {
+            countFuture = CompletableFuture.supplyAsync(() -> countInNewTransaction(claimed, countQuery), executor);
+        } catch (RejectedExecutionException e) {
+            return toPage(contentQuery.get(), pageable, countQuery);
+        }
+
+        List<T> content;
+        try {
+            content = contentQuery.get();
+        } catch (RuntimeException e) {
+            claimed.set(true);
+            countFuture.cancel(false);
+            throw e;
+        }
+
+        // 카운트 작업이 아직 커넥션을 못 잡았으면 호출한 스레드가 가져감
+        boolean local = claimed.compareAndSet(false, true);
+        if (local) {
+            countFuture.cancel(false);
+        }
+
+        boolean[] used = {false};
+        Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> {
+            used[0] = true;
+            return local ? countQuery.getAsLong() : join(countFuture);
+        });
+
+        if (used[0]) {
+            executedCount.increment();
+            if (!local) {
+                parallelCount.increment();
+            }
+        } else if (local) {
+            skippedCount.increment(); // 쿼리가 나가지 않음
+        } else {
+            wastedCount.increment(); // 이미 실행 중이거나 끝남 : 쿼리는 나갔고 결과만 버림
+        }
+        return page;
+    }
+
+    private Long countInNewTransaction(AtomicBoolean claimed, LongSupplier countQuery) {
+        if (claimed.get()) {
+            return null; // 큐에서 기다리는 동안 호출한 쪽이 가져감. 커넥션도 잡지 않음
+        }
+        return readOnlyTransaction.execute(status -> {
+            acquireConnection();
+            if (!claimed.compareAndSet(false, true)) {
+                return null;
+            }
+            return countQuery.getAsLong();
+        });
+    }
+
+    // 트랜잭션 커넥션을 실제로 가져옴. (LazyConnectionDataSourceProxy면 여기서 레플리카를 고르고 풀에서 꺼냄)
+    private void acquireConnection() {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            connection.getMetaData();
+        } catch (SQLException e) {
+            throw new CannotGetJdbcConnectionException("카운트 쿼리 커넥션 획득 실패", e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private <T> Page<T> toPage(List<T> content, Pageable pageable, LongSupplier countQuery) {
+        boolean[] used = {false};
+        Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> {
+            used[0] = true;
+            return countQuery.getAsLong();
+        });
+
+        if (used[0]) {
+            executedCount.increment();
+        } else {
+            skippedCount.increment();
+        }
+        return page;
+    }
+
+    private long join(CompletableFuture<Long> countFuture) {
+        try {
+            return countFuture.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public long getExecutedCount() {
+        return executedCount.sum();
+    }
+
+    // 실행된 카운트 중 별도 커넥션에서 컨텐트와 동시에 실행된 것
+    public long getParallelCount() {
+        return parallelCount.sum();
+    }
+
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+
+    public long getWastedCount() {
+        return wastedCount.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,230 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Visitor;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Projections.bean/fields 대신 쓰는 DTO 프로젝션
+ * Projections.bean/fields는 row마다 리플렉션(Method.invoke, Field.set)으로 값을 넣음.
+ * 여기서는 DTO 클래스별로 기본 생성자/setter를 LambdaMetafactory로 람다(Supplier, BiConsumer)로 만들어 한 번만 캐시하고, row마다 람다만 호출함.
+ *
+ * - 이름으로 매핑 : 경로 이름(member.username -> username) 또는 별칭(member.username.as("name") -> name). (UserDto 참고)
+ * - setter가 있으면 setter, 없으면 필드에 직접 넣음. (필드는 LambdaMetafactory 대상이 아니라서 MethodHandle)
+ * - 값이 null이면 넣지 않음. (primitive 필드는 기본값 유지)
+ * ex) queryFactory.select(DtoProjection.of(UserDto.class, member.username.as("name"), member.age))
+ */
+public class DtoProjection<T> extends FactoryExpressionBase<T> {
+
+    private static final ClassValue<Accessors> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected Accessors computeValue(Class<?> type) {
+            return Accessors.of(type);
+        }
+    };
+
+    private final List<Expression<?>> args;
+    private final Supplier<?> constructor;
+    private final BiConsumer<Object, Object>[] writers;
+
+    @SuppressWarnings("unchecked")
+    private DtoProjection(Class<? extends T> type, Expression<?>... args) {
+        super(type);
+        this.args = List.of(args);
+        Accessors accessors = ACCESSORS.get(type);
+        this.constructor = accessors.constructor(type);
+        this.writers = new BiConsumer[args.length];
+        for (int i = 0; i < args.length; i++) {
+            writers[i] = accessors.writer(type, nameOf(args[i]));
+        }
+    }
+
+    public static <T> DtoProjection<T> of(Class<? extends T> type, Expression<?>... args) {
+        return new DtoProjection<>(type, args);
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T newInstance(Object... values) {
+        Object dto = constructor.get();
+        for (int i = 0; i < writers.length; i++) {
+            if (values[i] != null) {
+                writers[i].accept(dto, values[i]);
+            }
+        }
+        return (T) dto;
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+
+    // Projections.bean/fields와 같은 규칙 : 경로면 경로 이름, as(...)면 별칭
+    private static String nameOf(Expression<?> expr) {
+        if (expr instanceof Path<?> path) {
+            return path.getMetadata().getName();
+        }
+        if (expr instanceof Operation<?> operation && operation.getOperator() == Ops.ALIAS) {
+            return ((Path<?>) operation.getArg(1)).getMetadata().getName();
+        }
+        throw new IllegalArgumentException("DTO 프로퍼티 이름을 알 수 없는 식입니다. as(\"이름\")으로 별칭을 지정하세요. " + expr);
+    }
+
+    /**
+     * DTO 클래스 하나의 생성자/프로퍼티 접근자 (ClassValue로 클래스당 한 번만 만듦)
+     */
+    private record Accessors(Supplier<?> constructor, Map<String, BiConsumer<Object, Object>> writers) {
+
+        Supplier<?> constructor(Class<?> type) {
+            if (constructor == null) {
+                throw new IllegalArgumentException(type.getSimpleName() + "에 기본 생성자가 없습니다.");
+            }
+            return constructor;
+        }
+
+        BiConsumer<Object, Object> writer(Class<?> type, String name) {
+            BiConsumer<Object, Object> writer = writers.get(name);
+            if (writer == null) {
+                throw new IllegalArgumentException(type.getSimpleName() + "에 " + name + " 프로퍼티(setter 또는 필드)가 없습니다.");
+            }
+            return writer;
+        }
+
+        static Accessors of(Class<?> type) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+                Map<String, BiConsumer<Object, Object>> writers = new HashMap<>();
+                // 필드 먼저 넣고 같은 이름의 setter가 있으면 덮어씀 (setter 우선)
+                for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        int modifiers = field.getModifiers();
+                        if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers)) {
+                            // 상위 클래스의 private 필드는 그 클래스 기준 Lookup이 필요함
+                            MethodHandles.Lookup fieldLookup = c == type ? lookup : MethodHandles.privateLookupIn(c, MethodHandles.lookup());
+                            writers.putIfAbsent(field.getName(), fieldWriter(fieldLookup, field));
+                        }
+                    }
+                }
+                for (Method method : type.getMethods()) {
+                    if (isSetter(method)) {
+                        writers.put(propertyName(method), setterWriter(lookup, method));
+                    }
+                }
+                return new Accessors(constructor(lookup, type), writers);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException(type.getSimpleName() + "에 접근할 수 없습니다.", e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Supplier<?> constructor(MethodHandles.Lookup lookup, Class<?> type) throws IllegalAccessException {
+            MethodHandle handle;
+            try {
+                handle = lookup.findConstructor(type, MethodType.methodType(void.class));
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+            try {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                        MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class),
+                        handle,
+                        MethodType.methodType(type));
+                return (Supplier<?>) site.getTarget().invokeExact();
+            } catch (LambdaConversionException e) {
+                MethodHandle generic = handle.asType(MethodType.methodType(Object.class));
+                return () -> invoke(generic);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // obj.setXxx(value) 를 (obj, value) -> obj.setXxx((타입) value) 람다로 만듦 (primitive는 언박싱)
+        @SuppressWarnings("unchecked")
+        private static BiConsumer<Object, Object> setterWriter(MethodHandles.Lookup lookup, Method method) throws IllegalAccessException {
+            MethodHandle handle = lookup.unreflect(method);
+            try {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(void.class, method.getDeclaringClass(), boxed(method.getParameterTypes()[0])));
+                return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+            } catch (LambdaConversionException e) {
+                return handleWriter(handle);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static BiConsumer<Object, Object> fieldWriter(MethodHandles.Lookup lookup, Field field) throws IllegalAccessException {
+            return handleWriter(lookup.unreflectSetter(field));
+        }
+
+        private static BiConsumer<Object, Object> handleWriter(MethodHandle handle) {
+            MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (target, value) -> {
+                try {
+                    generic.invokeExact(target, value);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        }
+
+        private static Object invoke(MethodHandle constructor) {
+            try {
+                return (Object) constructor.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // int -> Integer (참조 타입은 그대로)
+        private static Class<?> boxed(Class<?> type) {
+            return MethodType.methodType(type).wrap().returnType();
+        }
+
+        private static boolean isSetter(Method method) {
+            return method.getName().length() > 3
+                    && method.getName().startsWith("set")
+                    && method.getParameterCount() == 1
+                    && method.getReturnType() == void.class
+                    && !Modifier.isStatic(method.getModifiers());
+        }
+
+        private static String propertyName(Method setter) {
+            String name = setter.getName().substring(3);
+            return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+        }
+    }
+
+}
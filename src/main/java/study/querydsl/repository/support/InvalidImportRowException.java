@@ -0,0 +1,27 @@
+package study.querydsl.repository.support;
+
+/**
+ * 대량 적재(MemberBulkLoader) 입력 중 읽을 수 없는 행
+ * 청크 단위로 커밋하기 때문에 앞 청크는 이미 들어가 있음. 몇 번째 줄에서 멈췄고 몇 건이 커밋됐는지 같이 알려줌.
+ * (실패한 줄이 속한 청크는 커밋 전이라 들어가지 않음 -> loadedRows 다음 행부터 다시 보내면 됨)
+ */
+public class InvalidImportRowException extends RuntimeException {
+
+    private final long line;
+    private final long loadedRows;
+
+    public InvalidImportRowException(long line, long loadedRows, Throwable cause) {
+        super(line + "번째 줄을 읽을 수 없습니다. (" + loadedRows + "건까지 적재됨): " + cause.getMessage(), cause);
+        this.line = line;
+        this.loadedRows = loadedRows;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public long getLoadedRows() {
+        return loadedRows;
+    }
+
+}
@@ -0,0 +1,17 @@
+package study.querydsl.repository.support;
+
+/**
+ * 허용하지 않은 정렬 속성, 잘못된 커서 등 클라이언트가 넘긴 검색 파라미터 오류
+ * IllegalArgumentException을 쓰면 리포지토리 예외 변환에서 InvalidDataAccessApiUsageException으로 바뀌어서 따로 둠.
+ */
+public class InvalidSearchParameterException extends RuntimeException {
+
+    public InvalidSearchParameterException(String message) {
+        super(message);
+    }
+
+    public InvalidSearchParameterException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
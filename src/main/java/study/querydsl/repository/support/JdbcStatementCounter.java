@@ -0,0 +1,48 @@
+package study.querydsl.repository.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy가 가로챈 JDBC 실행 횟수를 셈
+ * 스레드별로도 세고 있어서 RepositoryMetricsAspect가 리포지토리 메서드 하나가 날린 쿼리 수를 알 수 있음.
+ * (CountQueryExecutor처럼 다른 스레드에서 실행된 쿼리는 전체 카운터에만 잡힘)
+ */
+@Component
+@ConditionalOnProperty(name = "querydsl.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class JdbcStatementCounter extends SimpleJdbcEventListener {
+
+    private static final ThreadLocal<long[]> CURRENT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final Counter statements;
+    private final Counter failures;
+
+    public JdbcStatementCounter(MeterRegistry registry) {
+        this.statements = Counter.builder("jdbc.statements")
+                .description("p6spy로 실행된 JDBC 문장 수")
+                .register(registry);
+        this.failures = Counter.builder("jdbc.statements.failed")
+                .register(registry);
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        CURRENT.get()[0]++;
+        statements.increment();
+        if (e != null) {
+            failures.increment();
+        }
+    }
+
+    // 현재 스레드에서 지금까지 실행된 문장 수 (차이로 사용)
+    public long current() {
+        return CURRENT.get()[0];
+    }
+
+}
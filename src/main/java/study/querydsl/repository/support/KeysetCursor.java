@@ -0,0 +1,41 @@
+package study.querydsl.repository.support;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 키셋 페이징용 커서 인코딩/디코딩
+ * 클라이언트에는 마지막으로 본 member.id를 그대로 노출하지 않고 불투명한(opaque) 토큰으로 넘긴다.
+ */
+public final class KeysetCursor {
+
+    private static final String PREFIX = "m:";
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(Long lastId) {
+        if (lastId == null) {
+            return null;
+        }
+        String raw = PREFIX + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 커서가 없으면 첫 페이지(null)
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new InvalidSearchParameterException("잘못된 커서입니다: " + cursor);
+            }
+            return Long.valueOf(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) { // NumberFormatException 포함
+            throw new InvalidSearchParameterException("잘못된 커서입니다: " + cursor, e);
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package study.querydsl.repository.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.time.Duration;
+
+/**
+ * MemberSearchCondition 별 카운트 쿼리 결과 캐시
+ * 같은 조건으로 방금 센 결과가 있으면 count(*) 쿼리를 다시 날리지 않는다.
+ *
+ * exact : TTL이 짧고, 회원 저장/삭제/벌크 수정이 일어나면 그 트랜잭션이 끝난 뒤에 비운다. (엔티티 변경은 MemberCountCacheEvictor)
+ * approximate : "약 N건" 정도만 필요한 화면용. 쓰기가 일어나도 비우지 않고 TTL(기본 5분)까지 예전 값을 그대로 쓴다.
+ */
+@Component
+public class MemberCountCache {
+
+    private final Cache<CountKey, Long> exact;
+    private final Cache<CountKey, Long> approximate;
+
+    public MemberCountCache(@Value("${querydsl.count-cache.ttl:10s}") Duration ttl,
+                            @Value("${querydsl.count-cache.approximate-ttl:5m}") Duration approximateTtl,
+                            @Value("${querydsl.count-cache.maximum-size:10000}") long maximumSize) {
+        this.exact = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.approximate = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(approximateTtl)
+                .recordStats()
+                .build();
+    }
+
+    // 캐시에 있으면 값, 없으면 null (카운트 쿼리를 실행하지 않음)
+    public Long getIfPresent(MemberSearchCondition condition, boolean approximateMode) {
+        CountKey key = CountKey.of(condition);
+        Long total = exact.getIfPresent(key);
+        if (total == null && approximateMode) {
+            total = approximate.getIfPresent(key);
+        }
+        return total;
+    }
+
+    public void put(MemberSearchCondition condition, long total) {
+        CountKey key = CountKey.of(condition);
+        exact.put(key, total);
+        approximate.put(key, total);
+    }
+
+    // 회원 데이터가 바뀌었을 때 호출 (approximate는 TTL로만 만료)
+    public void evict() {
+        exact.invalidateAll();
+    }
+
+    /**
+     * 트랜잭션 안이면 트랜잭션이 끝난 뒤에 한 번 비움. (트랜잭션 밖이면 바로)
+     * 커밋 전에 비우면 그 사이 다른 요청이 커밋 전(변경 전) 데이터로 다시 세서 캐시에 넣어버림.
+     * 롤백이어도 비움 : 이 트랜잭션 안에서 커밋 안 된 데이터로 센 값이 들어갔을 수 있음.
+     */
+    public void evictAfterTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return; // 이 트랜잭션에서 이미 등록함
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(MemberCountCache.this);
+                evict();
+            }
+        });
+    }
+
+    public void clear() {
+        exact.invalidateAll();
+        approximate.invalidateAll();
+    }
+
+    public long getHitCount() {
+        return exact.stats().hitCount() + approximate.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return exact.stats().missCount();
+    }
+
+    /**
+     * 조건을 정규화한 캐시 키
+     * 리포지토리의 where 조건과 똑같이 해석되도록 맞춤. (username은 빈 문자열, teamName은 공백만 있으면 조건 없음)
+     */
+    record CountKey(String username, String teamName, Integer ageGoe, Integer ageLoe) {
+
+        static CountKey of(MemberSearchCondition condition) {
+            String username = StringUtils.hasLength(condition.getUsername()) ? condition.getUsername() : null;
+            String teamName = StringUtils.hasText(condition.getTeamName()) ? condition.getTeamName() : null;
+            return new CountKey(username, teamName, condition.getAgeGoe(), condition.getAgeLoe());
+        }
+    }
+
+}
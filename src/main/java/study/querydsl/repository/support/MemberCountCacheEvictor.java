@@ -0,0 +1,72 @@
+package study.querydsl.repository.support;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+/**
+ * 회원/팀 엔티티가 바뀌면 트랜잭션이 끝난 뒤 카운트 캐시(exact)를 비움
+ * MemberJpaRepository.save(), 스프링 데이터 MemberRepository.save()/delete(), 변경 감지, MemberBulkLoader 모두 여기로 들어옴.
+ * (팀 이름이 바뀌면 teamName 조건 카운트가 달라짐)
+ * JPQL/Querydsl 벌크 연산은 이벤트가 없어서 MemberBulkUpdater가 직접 비움.
+ */
+@Component
+public class MemberCountCacheEvictor implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final MemberCountCache countCache;
+
+    public MemberCountCacheEvictor(EntityManagerFactory emf, MemberCountCache countCache) {
+        this.emf = emf;
+        this.countCache = countCache;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            countCache.evictAfterTransaction();
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member || event.getEntity() instanceof Team) {
+            countCache.evictAfterTransaction();
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member || event.getEntity() instanceof Team) {
+            countCache.evictAfterTransaction();
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+}
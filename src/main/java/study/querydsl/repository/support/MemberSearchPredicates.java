@@ -0,0 +1,179 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQuery;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.micrometer.common.util.StringUtils.isEmpty;
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * MemberSearchCondition 검색 조건 (리포지토리마다 복사돼 있던 usernameEq(), teamNameEq(), ageGoe(), ageLoe()를 한 곳으로)
+ * 조건 모양(shape)별 where 절을 파라미터(Param)로 미리 만들어두고, 호출할 때는 파라미터 값만 바인딩.
+ * Querydsl 표현식은 불변이라 여러 스레드가 같이 써도 됨. (매 요청마다 BooleanExpression 트리를 새로 만들지 않음)
+ */
+public final class MemberSearchPredicates {
+
+    static final int USERNAME = 1;
+    static final int TEAM_NAME = 1 << 1;
+    static final int AGE_GOE = 1 << 2;
+    static final int AGE_LOE = 1 << 3;
+
+    private static final Param<String> USERNAME_PARAM = new Param<>(String.class, "username");
+    private static final Param<String> TEAM_NAME_PARAM = new Param<>(String.class, "teamName");
+    private static final Param<Integer> AGE_GOE_PARAM = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE_PARAM = new Param<>(Integer.class, "ageLoe");
+
+    // 조건이 4개라 where 절은 2^4 = 16개 뿐 (0번은 조건 없음 = null)
+    private static final Predicate[] WHERE_BY_SHAPE = new Predicate[16];
+
+    static {
+        for (int shape = 1; shape < WHERE_BY_SHAPE.length; shape++) {
+            List<Predicate> predicates = new ArrayList<>();
+            if ((shape & USERNAME) != 0) {
+                predicates.add(member.username.eq(USERNAME_PARAM));
+            }
+            if ((shape & TEAM_NAME) != 0) {
+                predicates.add(team.name.eq(TEAM_NAME_PARAM));
+            }
+            if ((shape & AGE_GOE) != 0) {
+                predicates.add(member.age.goe(AGE_GOE_PARAM));
+            }
+            if ((shape & AGE_LOE) != 0) {
+                predicates.add(member.age.loe(AGE_LOE_PARAM));
+            }
+            WHERE_BY_SHAPE[shape] = ExpressionUtils.allOf(predicates);
+        }
+    }
+
+    private MemberSearchPredicates() {
+    }
+
+    /**
+     * 조건 모양에 맞는 where 절을 붙이고 파라미터 값 바인딩
+     * team 조건을 쓰려면 query에 team 조인이 있어야 함. (needsTeamJoin)
+     */
+    public static <T> JPAQuery<T> apply(JPAQuery<T> query, MemberSearchCondition condition) {
+        int shape = shapeOf(condition);
+        if (shape == 0) {
+            return query;
+        }
+        query.where(WHERE_BY_SHAPE[shape]);
+        params(condition).forEach((param, value) -> bind(query, param, value));
+        return query;
+    }
+
+    // 조건 모양별 where 절 (값은 Param이라 params()로 따로 바인딩). 조건이 없으면 null
+    static Predicate where(int shape) {
+        return WHERE_BY_SHAPE[shape];
+    }
+
+    // where(shapeOf(condition))의 Param에 바인딩할 값
+    static Map<ParamExpression<?>, Object> params(MemberSearchCondition condition) {
+        int shape = shapeOf(condition);
+        Map<ParamExpression<?>, Object> params = new HashMap<>(4);
+        if ((shape & USERNAME) != 0) {
+            params.put(USERNAME_PARAM, condition.getUsername());
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            params.put(TEAM_NAME_PARAM, condition.getTeamName());
+        }
+        if ((shape & AGE_GOE) != 0) {
+            params.put(AGE_GOE_PARAM, condition.getAgeGoe());
+        }
+        if ((shape & AGE_LOE) != 0) {
+            params.put(AGE_LOE_PARAM, condition.getAgeLoe());
+        }
+        return params;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void bind(JPAQuery<?> query, ParamExpression<?> param, Object value) {
+        query.set((ParamExpression<Object>) param, value);
+    }
+
+    /**
+     * 값이 그대로 들어간 조건식 (파라미터 이름이 겹치면 안 되는 곳용 : 여러 조건을 or로 묶는 경우 등)
+     * 조건이 하나도 없으면 null
+     */
+    public static Predicate literal(MemberSearchCondition condition) {
+        return ExpressionUtils.allOf(usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe()));
+    }
+
+    // 팀 이름 조건이 있을 때만 team 조인이 필요함.
+    public static boolean needsTeamJoin(MemberSearchCondition condition) {
+        return (shapeOf(condition) & TEAM_NAME) != 0;
+    }
+
+    // 어떤 조건이 들어있는지 비트로 표시 (username은 빈 문자열만 아니면, teamName은 공백만 있어도 조건 없음으로 봄)
+    static int shapeOf(MemberSearchCondition condition) {
+        int shape = 0;
+        if (!isEmpty(condition.getUsername())) {
+            shape |= USERNAME;
+        }
+        if (hasText(condition.getTeamName())) {
+            shape |= TEAM_NAME;
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= AGE_GOE;
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= AGE_LOE;
+        }
+        return shape;
+    }
+
+    // 메트릭 태그용 : "username+ageGoe" 처럼 들어있는 조건 이름 (조건이 없으면 "none")
+    public static String shapeName(MemberSearchCondition condition) {
+        int shape = shapeOf(condition);
+        if (shape == 0) {
+            return "none";
+        }
+        StringBuilder name = new StringBuilder();
+        appendIf(name, shape, USERNAME, "username");
+        appendIf(name, shape, TEAM_NAME, "teamName");
+        appendIf(name, shape, AGE_GOE, "ageGoe");
+        appendIf(name, shape, AGE_LOE, "ageLoe");
+        return name.toString();
+    }
+
+    private static void appendIf(StringBuilder name, int shape, int flag, String predicate) {
+        if ((shape & flag) != 0) {
+            if (name.length() > 0) {
+                name.append('+');
+            }
+            name.append(predicate);
+        }
+    }
+
+    private static BooleanExpression usernameEq(String username) {
+        return isEmpty(username) ? null : member.username.eq(username);
+    }
+
+    private static BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private static BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private static BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+
+}
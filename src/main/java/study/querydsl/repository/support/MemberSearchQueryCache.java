@@ -0,0 +1,114 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.MemberSearchPredicates.TEAM_NAME;
+import static study.querydsl.repository.support.MemberSearchPredicates.shapeOf;
+
+/**
+ * MemberSearchCondition 검색 쿼리(MemberTeamDto 목록)를 조건 모양(shape)별로 한 번만 JPQL로 직렬화해두고 재사용
+ * 조건이 4개라 모양은 2^4 = 16개 뿐. where 절은 MemberSearchPredicates의 모양별 Param 조건을 그대로 씀. (조건을 따로 복사하지 않음)
+ * 매 호출마다 하던 Querydsl 쿼리 객체 생성 + JPQL 직렬화를 처음 한 번만 하고, 이후엔 같은 JPQL 문자열에 값만 바인딩.
+ * 하이버네이트는 같은 문자열이면 쿼리 플랜 캐시에서 파싱된 플랜을 꺼내 씀.
+ */
+@Component
+public class MemberSearchQueryCache {
+
+    private final EntityManager em;
+    private final int maxRows;
+    private final AtomicReferenceArray<CompiledQuery> queryByShape = new AtomicReferenceArray<>(16);
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public MemberSearchQueryCache(EntityManager em, @Value("${querydsl.query.max-rows:1000}") int maxRows) {
+        this.em = em;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * 페이징이 없는 조회라서 최대 maxRows 건까지만 가져옴. (조건이 전부 비어 있으면 테이블 전체를 읽게 되니까)
+     * maxRows + 1 건을 조회해서 넘치면 결과를 버리고 SearchTooBroadException
+     */
+    public List<MemberTeamDto> fetch(MemberSearchCondition condition) {
+        CompiledQuery compiled = compiled(shapeOf(condition));
+        Query query = em.createQuery(compiled.jpql());
+        JPAUtil.setConstants(query, compiled.constants(), MemberSearchPredicates.params(condition));
+
+        List<?> rows = query.setMaxResults(maxRows + 1).getResultList();
+        if (rows.size() > maxRows) {
+            throw new SearchTooBroadException(maxRows);
+        }
+        return rows.stream()
+                .map(row -> toDto((Object[]) row))
+                .toList();
+    }
+
+    private CompiledQuery compiled(int shape) {
+        CompiledQuery compiled = queryByShape.get(shape);
+        if (compiled != null) {
+            hitCount.increment();
+            return compiled;
+        }
+
+        missCount.increment();
+        compiled = build(shape);
+        queryByShape.compareAndSet(shape, null, compiled);
+        return compiled;
+    }
+
+    // select 컬럼 순서는 toDto()와 맞춰야 함
+    private CompiledQuery build(int shape) {
+        JPAQuery<Tuple> query = new JPAQuery<Void>()
+                .select(member.id,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name)
+                .from(member);
+        // 팀 이름 조건이 있으면 inner join (결과는 같고 team 인덱스부터 탈 수 있음)
+        if ((shape & TEAM_NAME) != 0) {
+            query.join(member.team, team);
+        } else {
+            query.leftJoin(member.team, team);
+        }
+        query.where(MemberSearchPredicates.where(shape));
+
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(query.getMetadata(), false, null);
+        return new CompiledQuery(serializer.toString(), List.copyOf(serializer.getConstants()));
+    }
+
+    private MemberTeamDto toDto(Object[] row) {
+        return new MemberTeamDto((Long) row[0], (String) row[1], (Integer) row[2], (Long) row[3], (String) row[4]);
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    // constants : JPQL의 ?1, ?2 ... 순서대로 들어갈 값 (여기서는 전부 MemberSearchPredicates의 Param)
+    private record CompiledQuery(String jpql, List<Object> constants) {
+    }
+
+}
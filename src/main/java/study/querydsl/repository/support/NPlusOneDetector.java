@@ -0,0 +1,123 @@
+package study.querydsl.repository.support;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * N+1 감지기
+ * 범위(Scope) 안에서 실행된 SQL을 p6spy로 모아서, 파라미터만 다른 같은 SQL이 threshold번 이상 반복되면 N+1로 의심하고 로그를 남김.
+ * ex) memberRepository.findAll() 후에 member.getTeam().getName() -> "select ... from team where member_id=?"가 회원 수만큼 반복
+ *
+ * - 요청 단위 : QueryScopeFilter가 HTTP 요청마다 범위를 열어줌.
+ * - 테스트 : assertBudget(최대 쿼리 수, 로직) -> 넘으면 QueryBudgetExceededException
+ * 해결 : fetch join 하거나, querydsl.batch-fetch.size(hibernate.default_batch_fetch_size)로 프록시를 IN (...)으로 묶어서 로딩 (application.yml 참고)
+ *
+ * querydsl.n-plus-one.enabled=false 면 빈 자체가 등록되지 않음. (SQL마다 문자열 맵을 쌓는 비용 없음, QueryScopeFilter도 같이 빠짐)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "querydsl.n-plus-one.enabled", havingValue = "true", matchIfMissing = true)
+public class NPlusOneDetector extends SimpleJdbcEventListener {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private final int threshold;
+    private final Counter detected;
+
+    public NPlusOneDetector(@Value("${querydsl.n-plus-one.threshold:5}") int threshold, MeterRegistry registry) {
+        this.threshold = threshold;
+        this.detected = Counter.builder("jdbc.n_plus_one.detected").register(registry);
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.record(statementInformation.getSql());
+        }
+    }
+
+    public Scope open(String name) {
+        Scope scope = new Scope(name, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    // 테스트용 : 로직 실행 중 쿼리가 maxStatements개를 넘으면 실패
+    public <T> T assertBudget(int maxStatements, Supplier<T> work) {
+        T result;
+        int statementCount;
+        String repeated;
+        try (Scope scope = open("budget")) {
+            result = work.get();
+            statementCount = scope.getStatementCount();
+            repeated = scope.describeRepeated(2);
+        }
+        if (statementCount > maxStatements) {
+            throw new QueryBudgetExceededException("쿼리 " + maxStatements + "개 예산을 넘었습니다. (실행: " + statementCount + "개)" + repeated);
+        }
+        return result;
+    }
+
+    public class Scope implements AutoCloseable {
+
+        private final String name;
+        private final Scope previous;
+        private final Map<String, Integer> counts = new LinkedHashMap<>();
+        private int statementCount;
+
+        private Scope(String name, Scope previous) {
+            this.name = name;
+            this.previous = previous;
+        }
+
+        private void record(String sql) {
+            statementCount++;
+            counts.merge(sql, 1, Integer::sum);
+            if (previous != null) {
+                previous.record(sql);
+            }
+        }
+
+        public int getStatementCount() {
+            return statementCount;
+        }
+
+        private String describeRepeated(int minRepeat) {
+            String repeated = counts.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= minRepeat)
+                    .map(entry -> "\n  " + entry.getValue() + "회 : " + entry.getKey())
+                    .collect(Collectors.joining());
+            return repeated.isEmpty() ? "" : "\n반복된 쿼리 :" + repeated;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+
+            counts.forEach((sql, count) -> {
+                if (count >= threshold) {
+                    detected.increment();
+                    log.warn("N+1 의심 [{}] 같은 쿼리가 {}번 실행됨 : {}", name, count, sql);
+                }
+            });
+        }
+    }
+
+}
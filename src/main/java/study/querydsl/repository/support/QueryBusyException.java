@@ -0,0 +1,19 @@
+package study.querydsl.repository.support;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 동시에 실행할 수 있는 조회 한도를 넘어서 바로 거절함 -> 503 (SearchParameterExceptionHandler)
+ * 비동기 조회 대기열(AsyncQueryExecutor)이 꽉 찼거나, columns 조회 동시 실행 한도(querydsl.export.columns-concurrency)를 넘은 경우
+ */
+public class QueryBusyException extends RejectedExecutionException {
+
+    public QueryBusyException(String message) {
+        super(message);
+    }
+
+    public QueryBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
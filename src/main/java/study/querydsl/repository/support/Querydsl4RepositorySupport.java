@@ -2,12 +2,14 @@ package study.querydsl.repository.support;
 
 import com.querydsl.core.types.EntityPath;
 import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Path;
 import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
@@ -19,7 +21,10 @@ import org.springframework.stereotype.Repository;
 
 import org.springframework.util.Assert;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  *
@@ -35,10 +40,24 @@ public abstract class Querydsl4RepositorySupport {
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private final SortWhitelist sortWhitelist;
+    private boolean strictSort;
 
     public Querydsl4RepositorySupport(Class<?> domainClass) {
+        this(domainClass, null);
+    }
+
+    // sortWhitelist를 넘기면 Pageable의 Sort를 조인된 경로까지 변환해서 정렬 (없으면 루트 엔티티 기준 Querydsl 기본 동작)
+    public Querydsl4RepositorySupport(Class<?> domainClass, SortWhitelist sortWhitelist) {
         Assert.notNull(domainClass, "Domain class must not be null!");
         this.domainClass = domainClass;
+        this.sortWhitelist = sortWhitelist;
+    }
+
+    // true면 인덱스가 있는 속성으로만 정렬 허용
+    @Value("${querydsl.sort.strict:false}")
+    public void setStrictSort(boolean strictSort) {
+        this.strictSort = strictSort;
     }
 
     @Autowired
@@ -81,19 +100,86 @@ public abstract class Querydsl4RepositorySupport {
         return getQueryFactory().selectFrom(from);
     }
 
+    // where 조건이나 select 절에서 조인 대상을 안 쓰면 조인 자체를 생략. (to-one left join은 결과 row 수가 바뀌지 않기 때문에 카운트도 같음)
+    protected <T, P> JPAQuery<T> leftJoinIf(boolean needed, JPAQuery<T> query, EntityPath<P> target, Path<P> alias) {
+        return needed ? query.leftJoin(target, alias) : query;
+    }
+
+    /**
+     * to-one 조인을 쓰는 곳에 맞춰서 붙임
+     * where 조건에 쓰면 inner join (조인 대상이 없는 row는 조건에서 어차피 걸러짐), 정렬/select에만 쓰면 left join, 안 쓰면 조인 생략
+     * 컬렉션(to-many) 조인은 row 수가 바뀌기 때문에 이걸로 생략하면 안 됨.
+     */
+    protected <T, P> JPAQuery<T> toOneJoin(boolean filtered, boolean used, JPAQuery<T> query, EntityPath<P> target, Path<P> alias) {
+        if (filtered) {
+            return query.join(target, alias);
+        }
+        return leftJoinIf(used, query, target, alias);
+    }
+
+    // offset, limit + 정렬
+    protected <T> JPAQuery<T> paginate(Pageable pageable, JPAQuery<T> query) {
+        if (sortWhitelist == null) {
+            return (JPAQuery<T>) getQuerydsl().applyPagination(pageable, query);
+        }
+        if (pageable.isPaged()) {
+            query.offset(pageable.getOffset())
+                    .limit(pageable.getPageSize());
+        }
+        return query.orderBy(sortWhitelist.toOrderSpecifiers(pageable.getSort(), strictSort));
+    }
+
+    protected boolean sortRequiresJoin(Pageable pageable, EntityPath<?> alias) {
+        return sortWhitelist != null && sortWhitelist.requiresJoin(pageable.getSort(), alias);
+    }
+
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery) {
         JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable, jpaQuery).fetch();
+        List<T> content = paginate(pageable, jpaQuery).fetch();
 
         return PageableExecutionUtils.getPage(content, pageable, jpaQuery::fetchCount);
     }
 
     protected <T> Page<T> applyPagination(Pageable pageable, Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory, JPAQuery> countQuery) {
         JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch();
+        List<T> content = paginate(pageable, jpaContentQuery).fetch();
         JPAQuery countResult = countQuery.apply(getQueryFactory());
 
         return PageableExecutionUtils.getPage(content, pageable, countResult::fetchCount);
     }
 
+    /**
+     * 2단계 페이징: id만 offset/limit(+정렬)으로 먼저 가져오고, 엔티티는 id IN (...)으로 따로 조회
+     * 컬렉션 fetch join을 붙여도 하이버네이트가 메모리에서 페이징하지 않음. (limit은 id 쿼리에만 걸림)
+     * @param idQuery 조인 + where까지 붙인 id 조회 쿼리 (카운트도 이 쿼리로 함)
+     * @param fetchQuery id 목록을 받아서 fetch join 등을 붙인 엔티티 조회 쿼리
+     * @param idOf 엔티티에서 id 꺼내기 (id 쿼리 순서대로 다시 정렬할 때 사용)
+     */
+    protected <T> Page<T> applyIdPagination(Pageable pageable,
+                                            Function<JPAQueryFactory, JPAQuery<Long>> idQuery,
+                                            Function<List<Long>, JPAQuery<T>> fetchQuery,
+                                            Function<T, Long> idOf) {
+        JPAQuery<Long> jpaIdQuery = idQuery.apply(getQueryFactory());
+        List<Long> ids = paginate(pageable, jpaIdQuery).fetch();
+        List<T> content = fetchInIdOrder(ids, fetchQuery, idOf);
+
+        return PageableExecutionUtils.getPage(content, pageable, jpaIdQuery::fetchCount);
+    }
+
+    // id 목록 순서 그대로 엔티티 조회 (키셋 페이징처럼 id를 다른 방식으로 구한 경우에도 사용)
+    protected <T> List<T> fetchInIdOrder(List<Long> ids,
+                                         Function<List<Long>, JPAQuery<T>> fetchQuery,
+                                         Function<T, Long> idOf) {
+        if (ids.isEmpty()) {
+            return List.of(); // IN ()은 쿼리 자체가 안 됨
+        }
+        // IN 절은 순서를 보장하지 않아서 id 쿼리 순서로 다시 맞춤. (fetch join으로 중복된 엔티티도 여기서 하나로 합쳐짐)
+        Map<Long, T> byId = fetchQuery.apply(ids).fetch().stream()
+                .collect(Collectors.toMap(idOf, Function.identity(), (a, b) -> a));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
 }
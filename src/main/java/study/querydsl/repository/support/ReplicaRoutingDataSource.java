@@ -0,0 +1,178 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true))은 레플리카로, 나머지는 프라이머리로 보내는 DataSource
+ * 트랜잭션 시작 후 첫 쿼리 시점에 커넥션을 가져와야 readOnly 여부를 알 수 있기 때문에 반드시 LazyConnectionDataSourceProxy로 감싸서 사용.
+ *
+ * - 레플리카가 여러 개면 라운드 로빈
+ * - 주기적으로 헬스 체크 : 커넥션이 안 되거나, lagQuery로 구한 복제 지연(초)이 maxLag보다 크면 제외
+ * - 쓸 수 있는 레플리카가 없으면 프라이머리로 (fallback)
+ * - datasource.route{target=primary|replica-0|...,fallback} 카운터
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Duration maxLag;
+    private final String lagQuery;
+
+    private final Counter primaryRoute;
+    private final Counter fallbackRoute;
+
+    private ScheduledExecutorService healthChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources,
+                                    Duration maxLag, String lagQuery, MeterRegistry registry) {
+        this.primary = primary;
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            Replica replica = new Replica("replica-" + i, replicaDataSources.get(i), registry);
+            replicas.add(replica);
+            targets.put(replica.name, replica.dataSource);
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("target", replica.name)
+                    .register(registry);
+        }
+
+        this.primaryRoute = route(registry, PRIMARY);
+        this.fallbackRoute = route(registry, "fallback");
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicas.isEmpty()) {
+            primaryRoute.increment();
+            return PRIMARY;
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                replica.route.increment();
+                return replica.name;
+            }
+        }
+
+        fallbackRoute.increment();
+        return PRIMARY;
+    }
+
+    public void startHealthCheck(Duration interval) {
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy = isHealthy(replica);
+            if (healthy != replica.healthy) {
+                log.warn("레플리카 상태 변경 {} : {}", replica.name, healthy ? "UP" : "DOWN");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    private boolean isHealthy(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (!connection.isValid(2)) {
+                return false;
+            }
+            if (lagQuery == null || maxLag == null) {
+                return true;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                // 지연 값이 없으면(복제 중단 등) 사용하지 않음
+                return rs.next() && rs.getObject(1) != null && rs.getLong(1) <= maxLag.toSeconds();
+            }
+        } catch (SQLException e) {
+            log.debug("레플리카 헬스 체크 실패 {}", replica.name, e);
+            return false;
+        }
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        closeQuietly(primary);
+        replicas.forEach(replica -> closeQuietly(replica.dataSource));
+    }
+
+    private void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                log.debug("DataSource 종료 실패", e);
+            }
+        }
+    }
+
+    private static Counter route(MeterRegistry registry, String target) {
+        return Counter.builder("datasource.route")
+                .tag("target", target)
+                .register(registry);
+    }
+
+    private static class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final Counter route;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource, MeterRegistry registry) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.route = route(registry, name);
+        }
+    }
+
+}
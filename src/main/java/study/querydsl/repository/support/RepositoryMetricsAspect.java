@@ -0,0 +1,111 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionTimedOutException;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.Collection;
+
+/**
+ * 리포지토리 메서드별 메트릭 (/actuator/metrics/repository.query 등)
+ * - repository.query : 실행 시간 (repository, method, shape, outcome 태그)
+ * - repository.query.rows : 반환한 row 수
+ * - repository.query.statements : 메서드 한 번에 실행된 JDBC 문장 수 (N+1 확인용)
+ * - repository.query.timeouts : 쿼리 timeout으로 취소된 횟수
+ * shape은 MemberSearchCondition에 어떤 조건이 들어있는지 ("username+ageGoe", "none" ...)
+ *
+ * querydsl.metrics.enabled=false 면 빈 자체가 등록되지 않아서 비용 없음.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "querydsl.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class RepositoryMetricsAspect {
+
+    private final MeterRegistry registry;
+    private final JdbcStatementCounter statementCounter;
+
+    public RepositoryMetricsAspect(MeterRegistry registry, JdbcStatementCounter statementCounter) {
+        this.registry = registry;
+        this.statementCounter = statementCounter;
+    }
+
+    @Around("execution(public * study.querydsl.repository.MemberJpaRepository.*(..))"
+            + " || execution(public * study.querydsl.repository.MemberRepositoryImpl.*(..))"
+            + " || execution(public * study.querydsl.repository.MemberTestRepository.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        String shape = shapeOf(joinPoint.getArgs());
+
+        long statementsBefore = statementCounter.current();
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "success";
+        try {
+            Object result = joinPoint.proceed();
+            recordRows(repository, method, shape, result);
+            return result;
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            if (isTimeout(e)) {
+                registry.counter("repository.query.timeouts",
+                        "repository", repository, "method", method, "shape", shape).increment();
+            }
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("repository.query")
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .tag("shape", shape)
+                    .tag("outcome", outcome)
+                    .register(registry));
+            DistributionSummary.builder("repository.query.statements")
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .tag("shape", shape)
+                    .register(registry)
+                    .record(statementCounter.current() - statementsBefore);
+        }
+    }
+
+    private void recordRows(String repository, String method, String shape, Object result) {
+        long rows;
+        if (result instanceof Collection<?> collection) {
+            rows = collection.size();
+        } else if (result instanceof Page<?> page) {
+            rows = page.getNumberOfElements();
+        } else {
+            return;
+        }
+        DistributionSummary.builder("repository.query.rows")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("shape", shape)
+                .register(registry)
+                .record(rows);
+    }
+
+    // 리포지토리 예외 변환 전(JPA)일 수도, 후(스프링)일 수도 있어서 둘 다 확인
+    private boolean isTimeout(Throwable e) {
+        return e instanceof jakarta.persistence.QueryTimeoutException
+                || e instanceof org.springframework.dao.QueryTimeoutException
+                || e instanceof TransactionTimedOutException;
+    }
+
+    private String shapeOf(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition condition) {
+                return MemberSearchPredicates.shapeName(condition);
+            }
+        }
+        return "none";
+    }
+
+}
@@ -0,0 +1,70 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 이미 내부에서 세고 있는 값들을 메트릭으로 노출 (카운트 쿼리 실행/생략, 카운트 캐시, 검색 JPQL 캐시, 비동기 조회)
+ * 하이버네이트 자체 쿼리 플랜 캐시 적중률은 하이버네이트 통계(hibernate.cache.query.plan)로 나옴
+ */
+@Component
+@ConditionalOnProperty(name = "querydsl.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class RepositoryMetricsBinder implements MeterBinder {
+
+    private final CountQueryExecutor countQueryExecutor;
+    private final MemberCountCache countCache;
+    private final MemberSearchQueryCache searchQueryCache;
+    private final AsyncQueryExecutor asyncQueryExecutor;
+
+    public RepositoryMetricsBinder(CountQueryExecutor countQueryExecutor,
+                                   MemberCountCache countCache,
+                                   MemberSearchQueryCache searchQueryCache,
+                                   AsyncQueryExecutor asyncQueryExecutor) {
+        this.countQueryExecutor = countQueryExecutor;
+        this.countCache = countCache;
+        this.searchQueryCache = searchQueryCache;
+        this.asyncQueryExecutor = asyncQueryExecutor;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("repository.count.query", countQueryExecutor, CountQueryExecutor::getExecutedCount)
+                .tag("result", "executed")
+                .register(registry);
+        FunctionCounter.builder("repository.count.query", countQueryExecutor, CountQueryExecutor::getSkippedCount)
+                .tag("result", "skipped")
+                .register(registry);
+        FunctionCounter.builder("repository.count.query", countQueryExecutor, CountQueryExecutor::getWastedCount)
+                .tag("result", "wasted")
+                .register(registry);
+        FunctionCounter.builder("repository.count.query.parallel", countQueryExecutor, CountQueryExecutor::getParallelCount)
+                .description("컨텐트 쿼리와 동시에 별도 커넥션에서 실행된 카운트 쿼리 수")
+                .register(registry);
+
+        FunctionCounter.builder("repository.count.cache", countCache, MemberCountCache::getHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("repository.count.cache", countCache, MemberCountCache::getMissCount)
+                .tag("result", "miss")
+                .register(registry);
+
+        FunctionCounter.builder("repository.search.query.cache", searchQueryCache, MemberSearchQueryCache::getHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("repository.search.query.cache", searchQueryCache, MemberSearchQueryCache::getMissCount)
+                .tag("result", "miss")
+                .register(registry);
+
+        Gauge.builder("repository.async.active", asyncQueryExecutor, AsyncQueryExecutor::getActiveCount)
+                .register(registry);
+        Gauge.builder("repository.async.queued", asyncQueryExecutor, AsyncQueryExecutor::getQueueSize)
+                .register(registry);
+        FunctionCounter.builder("repository.async.rejected", asyncQueryExecutor, AsyncQueryExecutor::getRejectedCount)
+                .register(registry);
+    }
+
+}
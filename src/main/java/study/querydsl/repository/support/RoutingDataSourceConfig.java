@@ -0,0 +1,62 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * 읽기/쓰기 분리 DataSource (querydsl.datasource.routing.enabled=true 일 때만)
+ * 로컬에서는 H2 두 개로 확인 가능. ex)
+ *   querydsl.datasource.routing.enabled: true
+ *   querydsl.datasource.routing.replicas[0].url: jdbc:h2:tcp://localhost/~/querydsl-replica
+ * 페이징 카운트(CountQueryExecutor)도 자기 스레드의 새 읽기 전용 트랜잭션이라 레플리카로 감. (컨텐트와 다른 레플리카일 수 있음)
+ */
+@Configuration
+@ConditionalOnProperty(name = "querydsl.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+public class RoutingDataSourceConfig {
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties,
+                                 RoutingDataSourceProperties routingProperties,
+                                 MeterRegistry registry) {
+        DataSource primary = dataSourceProperties.initializeDataSourceBuilder().build();
+
+        List<DataSource> replicas = routingProperties.getReplicas().stream()
+                .map(replica -> (DataSource) DataSourceBuilder.create()
+                        .driverClassName(dataSourceProperties.determineDriverClassName())
+                        .url(replica.getUrl())
+                        .username(replica.getUsername())
+                        .password(replica.getPassword())
+                        .build())
+                .toList();
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas,
+                routingProperties.getMaxLag(), routingProperties.getLagQuery(), registry);
+        routingDataSource.startHealthCheck(routingProperties.getHealthCheckInterval());
+
+        // 트랜잭션이 시작되고 첫 쿼리가 나갈 때 커넥션을 가져와야 readOnly 여부로 라우팅 가능
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (routingDataSource != null) {
+            routingDataSource.close();
+        }
+    }
+
+}
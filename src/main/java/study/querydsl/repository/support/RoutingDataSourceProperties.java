@@ -0,0 +1,37 @@
+package study.querydsl.repository.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * querydsl.datasource.routing.* 설정 (프라이머리는 spring.datasource 그대로 사용)
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "querydsl.datasource.routing")
+public class RoutingDataSourceProperties {
+
+    private boolean enabled;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    private Duration healthCheckInterval = Duration.ofSeconds(10);
+
+    // lagQuery 결과(초)가 이 값보다 크면 해당 레플리카는 제외
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    // 복제 지연(초)을 구하는 쿼리. ex) MySQL : select timestampdiff(second, max(ts), now()) from heartbeat
+    private String lagQuery;
+
+    @Getter @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+
+}
@@ -0,0 +1,19 @@
+package study.querydsl.repository.support;
+
+/**
+ * 검색 조건이 너무 넓어서 결과가 최대 row 수(querydsl.query.max-rows)를 넘음 -> 조건을 좁혀서 다시 요청해야 함
+ */
+public class SearchTooBroadException extends InvalidSearchParameterException {
+
+    private final int maxRows;
+
+    public SearchTooBroadException(int maxRows) {
+        super("검색 결과가 " + maxRows + "건을 넘습니다. 검색 조건을 좁혀주세요.");
+        this.maxRows = maxRows;
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+}
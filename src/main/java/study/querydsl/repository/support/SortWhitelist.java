@@ -0,0 +1,89 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pageable의 Sort 속성 이름 -> Querydsl 정렬 경로 변환표
+ * getQuerydsl().applyPagination()은 루트 엔티티(member) 기준으로만 Sort를 해석해서 ?sort=teamName 같은 조인 경로는 안 됨.
+ * 허용한 속성만 조인된 경로(team.name)까지 매핑해서 DB의 order by로 넘김.
+ *
+ * strict : 인덱스가 있다고 표시한 속성만 정렬 허용 (큰 페이지를 인덱스 없이 정렬하는 것 방지)
+ */
+public class SortWhitelist {
+
+    private final Map<String, Key> keys;
+
+    private SortWhitelist(Map<String, Key> keys) {
+        this.keys = keys;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public OrderSpecifier<?>[] toOrderSpecifiers(Sort sort, boolean strict) {
+        List<OrderSpecifier<?>> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Key key = keys.get(order.getProperty());
+            if (key == null) {
+                throw new InvalidSearchParameterException("정렬할 수 없는 속성입니다: " + order.getProperty() + " (가능: " + keys.keySet() + ")");
+            }
+            if (strict && !key.indexed()) {
+                throw new InvalidSearchParameterException("인덱스가 없는 속성으로는 정렬할 수 없습니다: " + order.getProperty());
+            }
+
+            OrderSpecifier<?> orderSpecifier = order.isAscending() ? key.expression().asc() : key.expression().desc();
+            if (order.getNullHandling() == Sort.NullHandling.NULLS_FIRST) {
+                orderSpecifier = orderSpecifier.nullsFirst();
+            } else if (order.getNullHandling() == Sort.NullHandling.NULLS_LAST) {
+                orderSpecifier = orderSpecifier.nullsLast();
+            }
+            orders.add(orderSpecifier);
+        }
+        return orders.toArray(OrderSpecifier[]::new);
+    }
+
+    // 정렬 속성 중 alias(ex. team)의 경로가 있으면 조인이 필요함
+    public boolean requiresJoin(Sort sort, EntityPath<?> alias) {
+        for (Sort.Order order : sort) {
+            Key key = keys.get(order.getProperty());
+            if (key != null && key.expression() instanceof Path<?> path && alias.equals(path.getRoot())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Key(ComparableExpressionBase<?> expression, boolean indexed) {
+    }
+
+    public static class Builder {
+
+        private final Map<String, Key> keys = new LinkedHashMap<>();
+
+        public Builder indexed(String property, ComparableExpressionBase<?> expression) {
+            keys.put(property, new Key(expression, true));
+            return this;
+        }
+
+        public Builder allowed(String property, ComparableExpressionBase<?> expression) {
+            keys.put(property, new Key(expression, false));
+            return this;
+        }
+
+        public SortWhitelist build() {
+            return new SortWhitelist(Collections.unmodifiableMap(new LinkedHashMap<>(keys)));
+        }
+    }
+
+}
@@ -0,0 +1,212 @@
+package study.querydsl.repository.support;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * team_stats 증분 갱신
+ * 회원 insert/update(팀 변경, 나이 변경)/delete 이벤트에서 팀별 변화량(count, sum)만 모아두고, 커밋 직전(flush 이후)에 팀마다 update 한 번으로 반영.
+ * memberRepository.save(), member.changeTeam(), setAge() 등 엔티티로 바꾸는 경우는 모두 여기로 들어옴.
+ *
+ * - JPQL/Querydsl 벌크 연산은 이벤트가 발생하지 않음 -> MemberBulkUpdater가 끝나고 바뀐 팀만 TeamStatsReconciler.reconcile(팀 id) 호출
+ * - 롤백되면 반영하지 않음. (커밋 직전에만 실행)
+ * - 동시에 같은 팀을 바꾸면 min/max가 잠깐 어긋날 수 있음. (서로 커밋 전 회원은 못 봄) -> 주기적인 reconcile로 보정
+ *   count/sum은 row 잠금 아래에서 더하기만 해서 틀어지지 않음. (재계산도 row를 먼저 잠금)
+ */
+@Slf4j
+@Component
+public class TeamStatsEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+
+    // 세션(트랜잭션)별로 모아둔 변화량. 트랜잭션이 끝나면 지움.
+    private final Map<SessionImplementor, Delta> pending = new ConcurrentHashMap<>();
+
+    public TeamStatsEventListener(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Team team) {
+            // 새 팀은 빈 통계 row를 미리 만들어 둠. (이후 회원 추가는 update만 하면 됨)
+            delta(event.getSession()).add(team.getId(), 0, 0);
+        } else if (event.getEntity() instanceof Member) {
+            Long teamId = teamId(event.getState(), event.getPersister());
+            if (teamId != null) {
+                delta(event.getSession()).add(teamId, 1, age(event.getState(), event.getPersister()));
+            }
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            // 이전 값을 모르는 경우 (준영속 엔티티를 바로 update) -> 전체 재계산
+            delta(event.getSession()).reconcileAll = true;
+            return;
+        }
+
+        Long oldTeamId = teamId(oldState, persister);
+        Long newTeamId = teamId(event.getState(), persister);
+        int oldAge = age(oldState, persister);
+        int newAge = age(event.getState(), persister);
+        if (Objects.equals(oldTeamId, newTeamId) && oldAge == newAge) {
+            return; // username만 바뀐 경우
+        }
+
+        Delta delta = delta(event.getSession());
+        if (oldTeamId != null) {
+            delta.add(oldTeamId, -1, -oldAge);
+        }
+        if (newTeamId != null) {
+            delta.add(newTeamId, 1, newAge);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        Object[] deletedState = event.getDeletedState();
+        Long teamId = teamId(deletedState, event.getPersister());
+        if (teamId != null) {
+            delta(event.getSession()).add(teamId, -1, -age(deletedState, event.getPersister()));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    // 세션에서 처음 이벤트가 발생했을 때 커밋 직전/트랜잭션 종료 콜백을 등록
+    private Delta delta(EventSource session) {
+        Delta delta = pending.get(session);
+        if (delta == null) {
+            delta = new Delta();
+            pending.put(session, delta);
+
+            BeforeTransactionCompletionProcess beforeCompletion = this::flush;
+            AfterTransactionCompletionProcess afterCompletion = (success, s) -> pending.remove(session);
+            session.getActionQueue().registerProcess(beforeCompletion);
+            session.getActionQueue().registerProcess(afterCompletion);
+        }
+        return delta;
+    }
+
+    private void flush(SessionImplementor session) {
+        Delta delta = pending.remove(session);
+        if (delta == null || (delta.teams.isEmpty() && !delta.reconcileAll)) {
+            return;
+        }
+        session.doWork(connection -> {
+            if (delta.reconcileAll) {
+                recomputeAll(connection);
+            } else {
+                applyDelta(connection, delta);
+            }
+        });
+    }
+
+    // 팀 id 순서로 갱신 (동시에 여러 팀을 바꾸는 트랜잭션끼리 데드락 방지)
+    private void applyDelta(Connection connection, Delta delta) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(TeamStatsSql.APPLY_DELTA)) {
+            for (Map.Entry<Long, long[]> entry : delta.teams.entrySet()) {
+                Long teamId = entry.getKey();
+                update.setLong(1, entry.getValue()[0]);
+                update.setLong(2, entry.getValue()[1]);
+                update.setLong(3, teamId);
+                update.setLong(4, teamId);
+                update.setLong(5, teamId);
+                if (update.executeUpdate() == 0) {
+                    recomputeTeam(connection, teamId);
+                }
+            }
+        }
+    }
+
+    // 통계 row가 없는 팀 (team_stats 도입 전에 만들어진 팀 등)
+    private void recomputeTeam(Connection connection, Long teamId) throws SQLException {
+        try (PreparedStatement merge = connection.prepareStatement(TeamStatsSql.RECOMPUTE_TEAM)) {
+            merge.setLong(1, teamId);
+            merge.setLong(2, teamId);
+            merge.executeUpdate();
+        }
+    }
+
+    private void recomputeAll(Connection connection) throws SQLException {
+        log.debug("team_stats 전체 재계산");
+        try (Statement statement = connection.createStatement()) {
+            statement.executeQuery(TeamStatsSql.LOCK_ALL).close();
+            statement.executeUpdate(TeamStatsSql.RECOMPUTE_ALL);
+            statement.executeUpdate(TeamStatsSql.CLEAR_EMPTY);
+        }
+    }
+
+    private static Long teamId(Object[] state, EntityPersister persister) {
+        Object team = state[persister.getEntityMetamodel().getPropertyIndex("team")];
+        return team == null ? null : ((Team) team).getId(); // 프록시여도 id는 초기화 없이 꺼냄
+    }
+
+    private static int age(Object[] state, EntityPersister persister) {
+        Object age = state[persister.getEntityMetamodel().getPropertyIndex("age")];
+        return age == null ? 0 : (Integer) age;
+    }
+
+    private static class Delta {
+
+        private final Map<Long, long[]> teams = new TreeMap<>(); // teamId -> {count, ageSum}
+        private boolean reconcileAll;
+
+        void add(Long teamId, long count, long ageSum) {
+            long[] sums = teams.computeIfAbsent(teamId, id -> new long[2]);
+            sums[0] += count;
+            sums[1] += ageSum;
+        }
+    }
+
+}
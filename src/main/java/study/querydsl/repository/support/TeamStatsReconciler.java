@@ -0,0 +1,87 @@
+package study.querydsl.repository.support;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * team_stats 재계산 (member 테이블 group by)
+ * 이벤트로 잡히지 않는 변경(벌크 연산, 다른 애플리케이션/SQL로 직접 수정)과 동시 수정으로 생긴 오차를 보정함.
+ * 주기 : querydsl.team-stats.reconcile-interval (기본 10분)
+ *
+ * 재계산 전에 통계 row를 select ... for update로 잠금.
+ * 잠그지 않으면 group by가 읽은 시점 이후에 커밋된 증분(TeamStatsEventListener)을 예전 값으로 덮어써서 count/sum까지 틀어짐.
+ * 잠그면 증분 update는 재계산이 커밋될 때까지 기다렸다가 그 위에 더해짐. (READ COMMITTED 기준 : merge는 잠근 뒤 커밋된 회원까지 봄)
+ * 재계산 도중 새로 생긴 팀은 잠글 row가 없어서 다음 주기에 맞춰짐.
+ */
+@Slf4j
+@Component
+public class TeamStatsReconciler {
+
+    private final EntityManager em;
+    private final int maxPartialTeams;
+
+    public TeamStatsReconciler(EntityManager em,
+                               @Value("${querydsl.team-stats.max-partial-teams:1000}") int maxPartialTeams) {
+        this.em = em;
+        this.maxPartialTeams = maxPartialTeams;
+    }
+
+    @Scheduled(fixedDelayString = "${querydsl.team-stats.reconcile-interval:PT10M}",
+            initialDelayString = "${querydsl.team-stats.reconcile-interval:PT10M}")
+    @Transactional(timeoutString = "${querydsl.team-stats.reconcile-timeout:60}")
+    public void reconcile() {
+        long start = System.nanoTime();
+        int locked = em.createNativeQuery(TeamStatsSql.LOCK_ALL).getResultList().size();
+        int merged = execute(TeamStatsSql.RECOMPUTE_ALL);
+        int cleared = execute(TeamStatsSql.CLEAR_EMPTY);
+        int deleted = execute(TeamStatsSql.DELETE_ORPHAN);
+        log.info("team_stats 재계산 {}팀 (잠금 {}), 빈 팀 {}, 삭제된 팀 {} ({}ms)",
+                merged, locked, cleared, deleted, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 지정한 팀만 재계산 (벌크 연산으로 바뀐 팀)
+     * 팀이 maxPartialTeams개를 넘으면 팀마다 merge하는 것보다 전체 group by 한 번이 나아서 전체 재계산.
+     */
+    @Transactional(timeoutString = "${querydsl.team-stats.reconcile-timeout:60}")
+    public void reconcile(Collection<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return;
+        }
+        if (teamIds.size() > maxPartialTeams) {
+            reconcile();
+            return;
+        }
+
+        List<Long> sorted = teamIds.stream().distinct().sorted().toList();
+        em.createNativeQuery(TeamStatsSql.LOCK_TEAMS)
+                .setParameter("teamIds", sorted)
+                .getResultList();
+        for (Long teamId : sorted) {
+            em.createNativeQuery(TeamStatsSql.RECOMPUTE_TEAM)
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedQuerySpace("team_stats")
+                    .setParameter(1, teamId)
+                    .setParameter(2, teamId)
+                    .executeUpdate();
+        }
+        log.debug("team_stats 재계산 {}팀", sorted.size());
+    }
+
+    // 네이티브 벌크 쿼리는 쿼리 공간을 지정하지 않으면 2차 캐시(Team 등)를 전부 비움 -> team_stats만 지정
+    private int execute(String sql) {
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("team_stats")
+                .executeUpdate();
+    }
+
+}
@@ -0,0 +1,52 @@
+package study.querydsl.repository.support;
+
+/**
+ * team_stats 갱신 SQL
+ * count, sum은 변화량만 더하고, min/max는 (team_id, age) 인덱스(idx_member_team_age)에서 바로 읽음. (삭제/나이 변경 시에도 정확)
+ */
+final class TeamStatsSql {
+
+    // 1: member_count 변화량, 2: age_sum 변화량, 3~5: team_id
+    static final String APPLY_DELTA = "update team_stats"
+            + " set member_count = member_count + ?, age_sum = age_sum + ?,"
+            + " age_min = (select min(m.age) from member m where m.team_id = ?),"
+            + " age_max = (select max(m.age) from member m where m.team_id = ?)"
+            + " where team_id = ?";
+
+    // 아직 통계 row가 없는 팀 : 그 팀만 처음부터 계산해서 넣음. 1, 2: team_id
+    static final String RECOMPUTE_TEAM = "merge into team_stats s"
+            + " using (select cast(? as bigint) as team_id, count(*) as member_count, coalesce(sum(m.age), 0) as age_sum,"
+            + " min(m.age) as age_min, max(m.age) as age_max from member m where m.team_id = ?) c"
+            + " on s.team_id = c.team_id"
+            + " when matched then update set member_count = c.member_count, age_sum = c.age_sum, age_min = c.age_min, age_max = c.age_max"
+            + " when not matched then insert (team_id, member_count, age_sum, age_min, age_max)"
+            + " values (c.team_id, c.member_count, c.age_sum, c.age_min, c.age_max)";
+
+    // 전체 다시 계산 (벌크 연산 후, 주기적인 보정)
+    static final String RECOMPUTE_ALL = "merge into team_stats s"
+            + " using (select m.team_id as team_id, count(*) as member_count, sum(m.age) as age_sum,"
+            + " min(m.age) as age_min, max(m.age) as age_max from member m where m.team_id is not null group by m.team_id) c"
+            + " on s.team_id = c.team_id"
+            + " when matched then update set member_count = c.member_count, age_sum = c.age_sum, age_min = c.age_min, age_max = c.age_max"
+            + " when not matched then insert (team_id, member_count, age_sum, age_min, age_max)"
+            + " values (c.team_id, c.member_count, c.age_sum, c.age_min, c.age_max)";
+
+    // 재계산 전에 통계 row를 잠금 (APPLY_DELTA와 같은 팀 id 순서라 서로 데드락 나지 않음)
+    static final String LOCK_ALL = "select team_id from team_stats order by team_id for update";
+
+    // :teamIds
+    static final String LOCK_TEAMS = "select team_id from team_stats where team_id in (:teamIds) order by team_id for update";
+
+    // 회원이 한 명도 없게 된 팀
+    static final String CLEAR_EMPTY = "update team_stats"
+            + " set member_count = 0, age_sum = 0, age_min = null, age_max = null"
+            + " where member_count <> 0 and not exists (select 1 from member m where m.team_id = team_stats.team_id)";
+
+    // 삭제된 팀 (team 테이블의 pk 컬럼명은 member_id)
+    static final String DELETE_ORPHAN = "delete from team_stats"
+            + " where not exists (select 1 from team t where t.member_id = team_stats.team_id)";
+
+    private TeamStatsSql() {
+    }
+
+}
@@ -0,0 +1,60 @@
+package study.querydsl;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.NPlusOneDetector;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * querydsl.batch-fetch.size를 켜면 fetch join 없이도 지연 로딩 팀을 IN (...)으로 한 번에 가져옴 (QuerydslBasicTest.fetchJoinNoQueryBudget과 비교)
+ */
+@SpringBootTest(properties = "querydsl.batch-fetch.size=100")
+@Transactional
+class BatchFetchSizeTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    NPlusOneDetector nPlusOneDetector;
+
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        for (int i = 0; i < 4; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            em.persist(new Member("member" + i, 10 * i, team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    // 회원 조회 1번 + 팀 4개를 IN (...)으로 1번
+    @Test
+    public void lazyTeamsInOneQuery() {
+        List<String> teamNames = nPlusOneDetector.assertBudget(2, () -> {
+            List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .orderBy(member.age.asc())
+                    .fetch();
+            return members.stream().map(m -> m.getTeam().getName()).toList();
+        });
+
+        assertThat(teamNames).containsExactly("team0", "team1", "team2", "team3");
+    }
+
+}
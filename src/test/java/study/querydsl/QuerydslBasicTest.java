@@ -29,6 +29,9 @@ import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.DtoProjection;
+import study.querydsl.repository.support.NPlusOneDetector;
+import study.querydsl.repository.support.QueryBudgetExceededException;
 
 import java.util.List;
 
@@ -371,6 +374,39 @@ public class QuerydslBasicTest {
         assertThat(loaded).as("페치 조인 미적용").isTrue();
     }
 
+    @Autowired
+    NPlusOneDetector nPlusOneDetector;
+
+    // 지연 로딩 : 회원 조회 1번 + 팀 조회가 팀 수만큼 더 나감 (N+1)
+    @Test
+    public void fetchJoinNoQueryBudget() {
+        em.flush();
+        em.clear();
+
+        assertThatThrownBy(() -> nPlusOneDetector.assertBudget(1, () -> {
+            List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .fetch();
+            return members.stream().map(m -> m.getTeam().getName()).toList();
+        })).isInstanceOf(QueryBudgetExceededException.class);
+    }
+
+    @Test
+    public void fetchJoinUseQueryBudget() {
+        em.flush();
+        em.clear();
+
+        List<String> teamNames = nPlusOneDetector.assertBudget(1, () -> {
+            List<Member> members = queryFactory
+                    .selectFrom(member)
+                    .join(member.team, team).fetchJoin()
+                    .fetch();
+            return members.stream().map(m -> m.getTeam().getName()).toList();
+        });
+
+        assertThat(teamNames).containsExactly("teamA", "teamA", "teamB", "teamB");
+    }
+
     /**
      * 서브 쿼리
      * `com.querydsl.jpa.JPAExpressions' 사용
@@ -707,6 +743,28 @@ public class QuerydslBasicTest {
         }
     }
 
+    /**
+     * DtoProjection : Projections.bean/fields와 같은 이름 규칙(별칭 포함)인데 row마다 리플렉션 대신 미리 만든 람다로 값을 넣음.
+     */
+    @Test
+    public void findUserDtoByDtoProjection() {
+        QMember memberSub = new QMember("memberSub");
+
+        List<UserDto> result = queryFactory
+                .select(DtoProjection.of(UserDto.class,
+                        member.username.as("name"),
+                        ExpressionUtils.as(JPAExpressions
+                                .select(memberSub.age.max())
+                                .from(memberSub), "age")
+                ))
+                .from(member)
+                .orderBy(member.username.asc())
+                .fetch();
+
+        assertThat(result).extracting("name").containsExactly("member1", "member2", "member3", "member4");
+        assertThat(result).extracting("age").containsOnly(40);
+    }
+
     /**
      * 동적 쿼리 - BooleanBuilder 사용
      * **동적 쿼리를 해결하는 두가지 방식**
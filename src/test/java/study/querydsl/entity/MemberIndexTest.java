@@ -0,0 +1,123 @@
+package study.querydsl.entity;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 검색 조건 모양 16개 전부 리포지토리(searchByWhere)가 실제로 만든 SQL을 p6spy로 가로채서 H2 실행 계획(EXPLAIN)을 봄
+ * 조건이 하나라도 있으면 member 테이블 풀 스캔(tableScan)이 아니어야 함. (조건 없음은 전체 조회라 제외)
+ */
+@SpringBootTest
+@Transactional
+class MemberIndexTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    SqlCapture sqlCapture;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        for (int i = 0; i < 1000; i++) {
+            em.persist(new Member("member" + i, i % 100, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+        em.createNativeQuery("analyze").executeUpdate(); // 옵티마이저 통계 갱신
+    }
+
+    @Test
+    public void allShapes() {
+        for (int shape = 0; shape < 16; shape++) {
+            MemberSearchCondition condition = condition(shape);
+            String sql = capture(condition);
+            String plan = explain(sql);
+            System.out.println("shape = " + shape + ", sql = " + sql + ", plan = " + plan);
+
+            if (shape != 0) {
+                assertThat(plan).as("shape %d : %s", shape, sql).doesNotContainIgnoringCase("MEMBER.tableScan");
+            }
+        }
+    }
+
+    // 비트 순서는 MemberSearchPredicates와 같음 (username, teamName, ageGoe, ageLoe). 나이는 범위가 좁게
+    private MemberSearchCondition condition(int shape) {
+        boolean goe = (shape & 4) != 0;
+        boolean loe = (shape & 8) != 0;
+        MemberSearchCondition condition = new MemberSearchCondition();
+        if ((shape & 1) != 0) {
+            condition.setUsername("member1");
+        }
+        if ((shape & 2) != 0) {
+            condition.setTeamName("teamA");
+        }
+        if (goe) {
+            condition.setAgeGoe(loe ? 10 : 98);
+        }
+        if (loe) {
+            condition.setAgeLoe(goe ? 11 : 1);
+        }
+        return condition;
+    }
+
+    // 리포지토리로 검색하면서 나간 select 하나를 값이 들어간 SQL로 받음
+    private String capture(MemberSearchCondition condition) {
+        sqlCapture.selects.clear();
+        memberJpaRepository.searchByWhere(condition);
+        assertThat(sqlCapture.selects).hasSize(1);
+        return sqlCapture.selects.get(0);
+    }
+
+    private String explain(String sql) {
+        return String.valueOf(em.createNativeQuery("explain " + sql).getSingleResult());
+    }
+
+    @TestConfiguration
+    static class SqlCaptureConfig {
+
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+    }
+
+    // p6spy-spring-boot-starter가 JdbcEventListener 빈을 등록해줌
+    static class SqlCapture extends SimpleJdbcEventListener {
+
+        final List<String> selects = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            String sql = statementInformation.getSqlWithValues();
+            if (sql.stripLeading().replaceFirst("(?s)^/\\*.*?\\*/", "").stripLeading().regionMatches(true, 0, "select", 0, 6)) {
+                selects.add(sql);
+            }
+        }
+    }
+
+}
@@ -9,6 +9,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -47,4 +48,32 @@ class MemberTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void changeTeamDoesNotLoadMembers() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.flush();
+        em.clear();
+
+        Team findTeamA = em.find(Team.class, teamA.getId());
+        Team findTeamB = em.find(Team.class, teamB.getId());
+        Member member2 = new Member("member2", 20, findTeamA);
+        em.persist(member2);
+        member2.changeTeam(findTeamB);
+
+        // 회원을 추가/이동해도 팀의 회원 컬렉션은 로딩되지 않음
+        assertThat(em.getEntityManagerFactory().getPersistenceUnitUtil().isLoaded(findTeamA, "members")).isFalse();
+        assertThat(em.getEntityManagerFactory().getPersistenceUnitUtil().isLoaded(findTeamB, "members")).isFalse();
+
+        em.flush();
+        em.clear();
+        Long countB = em.createQuery("select count(m) from Member m where m.team.id = :teamId", Long.class)
+                .setParameter("teamId", teamB.getId())
+                .getSingleResult();
+        assertThat(countB).isEqualTo(1);
+    }
+
+}
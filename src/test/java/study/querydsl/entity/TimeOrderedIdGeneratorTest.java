@@ -0,0 +1,105 @@
+package study.querydsl.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimeOrderedIdGeneratorTest {
+
+    private static final long NOW = 1735689600000L; // 2025-01-01T00:00:00Z
+
+    @Test
+    public void increasing() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1);
+
+        long previous = generator.nextId();
+        // 한 밀리초 순번(4096)을 넘겨도 계속 증가해야 함
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    public void uniqueAcrossThreads() throws Exception {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(ids).hasSize(8 * 5_000);
+    }
+
+    @Test
+    public void sequenceOverflowDoesNotWaitForClock() {
+        // 시계가 멈춰 있어도 순번을 다 쓰면 다음 밀리초를 미리 써서 계속 발급 (예전에는 시계가 바뀔 때까지 락을 잡고 돌았음)
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1, () -> NOW);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 4096 * 3; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    public void clockMovedBackwards() {
+        AtomicLong clock = new AtomicLong(NOW);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(1, clock::get);
+        long previous = generator.nextId();
+
+        // 조금 뒤로 가면 마지막 시각에서 이어서 발급
+        clock.set(NOW - 5);
+        for (int i = 0; i < 4096 * 2; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+
+        // 너무 많이 뒤로 가면 순번을 다 쓴 시점에 기다리지 않고 실패
+        clock.set(NOW - TimeOrderedIdGenerator.MAX_DRIFT_MILLIS * 2);
+        assertThatThrownBy(() -> {
+            for (int i = 0; i < 4096; i++) {
+                generator.nextId();
+            }
+        }).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void nodeRequired() {
+        assertThatThrownBy(() -> TimeOrderedIdGenerator.requireNode(null))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(TimeOrderedIdGenerator.requireNode(3)).isEqualTo(3);
+    }
+
+    @Test
+    public void nodeOutOfRange() {
+        assertThatThrownBy(() -> new TimeOrderedIdGenerator(1024))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+}
@@ -0,0 +1,137 @@
+package study.querydsl.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberRow;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.support.InvalidImportRowException;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class MemberBulkLoaderTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberBulkLoader memberBulkLoader;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    public void load() {
+        MemberBulkLoader.Result result = memberBulkLoader.load(IntStream.range(0, 2500)
+                .mapToObj(i -> new MemberRow("member" + i, i % 100, i % 2 == 0 ? "teamA" : "teamB")));
+
+        assertThat(result.rows()).isEqualTo(2500);
+
+        Long teamACount = em.createQuery("select count(m) from Member m where m.team.name = 'teamA'", Long.class)
+                .getSingleResult();
+        assertThat(teamACount).isEqualTo(1250);
+
+        Long teamCount = em.createQuery("select count(t) from Team t", Long.class)
+                .getSingleResult();
+        assertThat(teamCount).isEqualTo(2);
+    }
+
+    @Test
+    public void loadCsv() {
+        String csv = """
+                username,age,teamName
+                member1,10,teamA
+                member2,20,
+                """;
+
+        MemberBulkLoader.Result result = memberBulkLoader.loadCsv(new BufferedReader(new StringReader(csv)));
+        assertThat(result.rows()).isEqualTo(2);
+
+        List<Member> members = em.createQuery("select m from Member m left join fetch m.team order by m.username", Member.class)
+                .getResultList();
+        assertThat(members).extracting("username").containsExactly("member1", "member2");
+        assertThat(members.get(0).getTeam().getName()).isEqualTo("teamA");
+        assertThat(members.get(1).getTeam()).isNull();
+    }
+
+    @Test
+    public void loadNdjson() {
+        String ndjson = """
+                {"username":"member1","age":10,"teamName":"teamA"}
+                {"username":"member2","age":20,"teamName":"teamB"}
+                """;
+
+        MemberBulkLoader.Result result = memberBulkLoader.loadNdjson(new BufferedReader(new StringReader(ndjson)));
+        assertThat(result.rows()).isEqualTo(2);
+
+        List<Member> members = em.createQuery("select m from Member m where m.age >= 10", Member.class)
+                .getResultList();
+        assertThat(members).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+    }
+
+    @Test
+    public void loadCsvWithBadRowInMiddle() {
+        // 2건씩 커밋 : member1, member2 청크는 들어가고 member3 청크는 5번째 줄(나이가 숫자가 아님)에서 멈춤
+        MemberBulkLoader loader = new MemberBulkLoader(em, transactionManager, objectMapper, 2);
+        String csv = """
+                username,age,teamName
+                member1,10,teamA
+                member2,20,teamA
+                member3,30,teamA
+                member4,abc,teamA
+                member5,50,teamA
+                """;
+
+        assertThatThrownBy(() -> loader.loadCsv(new BufferedReader(new StringReader(csv))))
+                .isInstanceOfSatisfying(InvalidImportRowException.class, e -> {
+                    assertThat(e.getLine()).isEqualTo(5);
+                    assertThat(e.getLoadedRows()).isEqualTo(2);
+                })
+                .hasCauseInstanceOf(NumberFormatException.class);
+
+        List<String> usernames = em.createQuery("select m.username from Member m where m.username like 'member%' order by m.username", String.class)
+                .getResultList();
+        assertThat(usernames).containsExactly("member1", "member2");
+    }
+
+    @Test
+    public void loadNdjsonWithBadRow() {
+        String ndjson = """
+                {"username":"member1","age":10,"teamName":"teamA"}
+
+                {"username":"member2","age":
+                """;
+
+        assertThatThrownBy(() -> memberBulkLoader.loadNdjson(new BufferedReader(new StringReader(ndjson))))
+                .isInstanceOfSatisfying(InvalidImportRowException.class, e -> {
+                    assertThat(e.getLine()).isEqualTo(3); // 빈 줄도 줄 번호에 포함
+                    assertThat(e.getLoadedRows()).isZero(); // 첫 청크를 다 채우기 전에 실패
+                });
+    }
+
+    @Test
+    public void resultJson() {
+        JsonNode json = objectMapper.valueToTree(new MemberBulkLoader.Result(100, 2_000_000_000L));
+
+        assertThat(json.get("rows").asLong()).isEqualTo(100);
+        assertThat(json.get("elapsedNanos").asLong()).isEqualTo(2_000_000_000L);
+        assertThat(json.get("rowsPerSecond").asDouble()).isEqualTo(50.0);
+    }
+
+}
@@ -0,0 +1,179 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.MemberCountCache;
+import study.querydsl.repository.support.TeamStatsReconciler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 범위별 커밋은 테스트 트랜잭션 안에서는 확인할 수 없어서(바깥 트랜잭션에 참여함) 트랜잭션 없이 실행하고,
+ * 데이터는 직접 커밋한 뒤 끝나면 지움.
+ */
+@SpringBootTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MemberBulkUpdaterTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberBulkUpdater memberBulkUpdater;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+
+    @Autowired
+    TeamStatsReconciler teamStatsReconciler;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    Long teamAId;
+    Long teamBId;
+    final List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        countCache.clear();
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("bulkA");
+            Team teamB = new Team("bulkB");
+            em.persist(teamA);
+            em.persist(teamB);
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+
+            persist(new Member("member1", 10, teamA));
+            persist(new Member("member2", 20, teamA));
+            persist(new Member("member3", 30, teamB));
+            persist(new Member("member4", 40, teamB));
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        // 삭제 테스트에서 이미 지워진 회원이 있어서 벌크로 지움
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member m where m.id in :ids")
+                    .setParameter("ids", memberIds)
+                    .executeUpdate();
+            em.createQuery("delete from Team t where t.id in :ids")
+                    .setParameter("ids", List.of(teamAId, teamBId))
+                    .executeUpdate();
+        });
+        teamStatsReconciler.reconcile();
+        countCache.clear();
+    }
+
+    @Test
+    public void bulkUpdateInChunks() {
+        List<MemberBulkUpdater.Progress> progresses = new ArrayList<>();
+        List<Long> committed = new ArrayList<>();
+
+        MemberBulkUpdater.Progress result = memberBulkUpdater.update(member.id.in(memberIds).and(member.age.lt(28)),
+                clause -> clause.set(member.username, "비회원"),
+                1, progress -> {
+                    progresses.add(progress);
+                    committed.add(countUsername("비회원")); // 다른 트랜잭션에서 보이면 그 범위는 커밋된 것
+                });
+
+        assertThat(result.rows()).isEqualTo(2);
+        assertThat(progresses).hasSize((int) result.chunks());
+        assertThat(progresses.get(progresses.size() - 1).rows()).isEqualTo(2);
+        assertThat(committed).isEqualTo(progresses.stream().map(MemberBulkUpdater.Progress::rows).toList());
+
+        assertThat(usernamesByAge()).containsExactly("비회원", "비회원", "member3", "member4");
+    }
+
+    @Test
+    public void bulkDeleteInChunks() {
+        MemberBulkUpdater.Progress result = memberBulkUpdater.delete(member.id.in(memberIds).and(member.age.gt(18)), 2, progress -> {});
+
+        assertThat(result.rows()).isEqualTo(3);
+        assertThat(usernamesByAge()).containsExactly("member1");
+        assertStats(teamAId, 1, 10);
+        assertThat(teamStatsRepository.findByTeamId(teamBId).getMemberCount()).isZero();
+    }
+
+    @Test
+    public void failureInLaterChunkKeepsCommittedChunks() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        countCache.put(condition, 4);
+
+        // 청크 하나에 회원 하나, 세 번째 청크(member3)에서 실패
+        AtomicInteger chunkCount = new AtomicInteger();
+        assertThatThrownBy(() -> memberBulkUpdater.update(member.id.in(memberIds),
+                clause -> {
+                    if (chunkCount.incrementAndGet() == 3) {
+                        throw new IllegalStateException("세 번째 청크 실패");
+                    }
+                    clause.set(member.age, member.age.add(1));
+                },
+                1, progress -> {}))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("세 번째 청크 실패");
+
+        // 앞의 두 청크(teamA)는 커밋된 채로 남고, 실패한 청크부터는 반영되지 않음
+        assertThat(agesById()).containsExactly(11, 21, 30, 40);
+        // 실패해도 커밋된 만큼 카운트 캐시를 비우고 team_stats를 다시 계산함
+        assertThat(countCache.getIfPresent(condition, false)).isNull();
+        assertStats(teamAId, 2, 32);
+        assertStats(teamBId, 2, 70);
+    }
+
+    private void persist(Member member) {
+        em.persist(member);
+        memberIds.add(member.getId());
+    }
+
+    private long countUsername(String username) {
+        return tx.execute(status -> em.createQuery("select count(m) from Member m where m.id in :ids and m.username = :username", Long.class)
+                .setParameter("ids", memberIds)
+                .setParameter("username", username)
+                .getSingleResult());
+    }
+
+    private List<String> usernamesByAge() {
+        return tx.execute(status -> em.createQuery("select m.username from Member m where m.id in :ids order by m.age", String.class)
+                .setParameter("ids", memberIds)
+                .getResultList());
+    }
+
+    private List<Integer> agesById() {
+        return tx.execute(status -> em.createQuery("select m.age from Member m where m.id in :ids order by m.id", Integer.class)
+                .setParameter("ids", memberIds)
+                .getResultList());
+    }
+
+    private void assertStats(Long teamId, long count, long sum) {
+        TeamStatsDto stats = teamStatsRepository.findByTeamId(teamId);
+        assertThat(stats.getMemberCount()).isEqualTo(count);
+        assertThat(stats.getAgeSum()).isEqualTo(sum);
+    }
+
+}
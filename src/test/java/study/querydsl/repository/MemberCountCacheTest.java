@@ -0,0 +1,111 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.MemberCountCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 회원이 바뀌면 카운트 캐시를 커밋 전이 아니라 트랜잭션이 끝난 뒤에 비우는지 확인
+ * 커밋 시점을 봐야 해서 @Transactional(롤백) 대신 트랜잭션을 직접 커밋하고, 끝나면 지움.
+ */
+@SpringBootTest
+class MemberCountCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    MemberSearchCondition condition;
+    Long teamId;
+    final List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team team = new Team("countCacheTeam");
+            em.persist(team);
+            teamId = team.getId();
+        });
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("countCacheTeam");
+        countCache.clear();
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            memberIds.forEach(id -> em.remove(em.find(Member.class, id)));
+            em.flush();
+            em.remove(em.find(Team.class, teamId));
+        });
+    }
+
+    @Test
+    public void springDataSave() {
+        countCache.put(condition, 0);
+
+        tx.executeWithoutResult(status -> {
+            Member member = memberRepository.save(new Member("countCacheMember", 10, em.getReference(Team.class, teamId)));
+            memberIds.add(member.getId());
+            em.flush();
+            // 커밋 전에는 그대로
+            assertThat(countCache.getIfPresent(condition, false)).isEqualTo(0L);
+        });
+
+        assertThat(countCache.getIfPresent(condition, false)).isNull();
+    }
+
+    @Test
+    public void springDataDelete() {
+        tx.executeWithoutResult(status -> memberIds.add(memberRepository.save(new Member("countCacheMember", 10, em.getReference(Team.class, teamId))).getId()));
+        countCache.put(condition, 1);
+
+        tx.executeWithoutResult(status -> memberRepository.deleteById(memberIds.remove(0)));
+
+        assertThat(countCache.getIfPresent(condition, false)).isNull();
+    }
+
+    @Test
+    public void memberJpaRepositorySave() {
+        countCache.put(condition, 0);
+
+        tx.executeWithoutResult(status -> {
+            Member member = new Member("countCacheMember", 10, em.getReference(Team.class, teamId));
+            memberJpaRepository.save(member);
+            memberIds.add(member.getId());
+            em.flush();
+            assertThat(countCache.getIfPresent(condition, false)).isEqualTo(0L);
+        });
+
+        assertThat(countCache.getIfPresent(condition, false)).isNull();
+    }
+
+}
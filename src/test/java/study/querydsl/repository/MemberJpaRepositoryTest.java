@@ -1,5 +1,6 @@
 package study.querydsl.repository;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -7,11 +8,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamColumns;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.MemberSearchQueryCache;
+import study.querydsl.repository.support.SearchTooBroadException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,6 +32,9 @@ class MemberJpaRepositoryTest {
     @Autowired
     MemberJpaRepository memberJpaRepository;
 
+    @Autowired
+    ObjectMapper objectMapper;
+
     @Test
     public void basicTest() {
         Member member = new Member("member1", 10);
@@ -72,4 +81,108 @@ class MemberJpaRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member3", "member4");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void searchByWhereReusesQueryPerShape() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20));
+
+        // 다른 테스트가 채워둔 캐시와 섞이지 않게 새로 만듦
+        MemberSearchQueryCache cache = new MemberSearchQueryCache(em, 1000);
+
+        MemberSearchCondition first = new MemberSearchCondition();
+        first.setAgeGoe(15);
+        first.setTeamName("teamA");
+        assertThat(cache.fetch(first)).isEmpty();
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isZero();
+
+        // 값만 다르고 조건 모양이 같으면 직렬화해둔 JPQL을 그대로 씀
+        MemberSearchCondition second = new MemberSearchCondition();
+        second.setAgeGoe(5);
+        second.setTeamName("teamA");
+        assertThat(cache.fetch(second)).extracting("username", "teamName").containsExactly(tuple("member1", "teamA"));
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+
+        // 모양이 다르면 새로 만듦 (팀 이름 조건이 없으니 left join : 팀 없는 회원도 나옴)
+        MemberSearchCondition third = new MemberSearchCondition();
+        third.setAgeGoe(15);
+        assertThat(cache.fetch(third)).extracting("username", "teamId").containsExactly(tuple("member2", null));
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+
+        // 조건이 없는 모양도 한 개의 모양으로 캐시
+        cache.fetch(new MemberSearchCondition());
+        cache.fetch(new MemberSearchCondition());
+        assertThat(cache.getMissCount()).isEqualTo(3);
+        assertThat(cache.getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void streamByWhere() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+
+        Member member3 = new Member("member3", 30, teamB);
+        Member member4 = new Member("member4", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        try (Stream<MemberTeamDto> result = memberJpaRepository.streamByWhere(condition, 2)) {
+            assertThat(result.map(MemberTeamDto::getUsername)).containsExactly("member2", "member3", "member4");
+        }
+    }
+
+    @Test
+    public void searchColumns() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50)); // 팀 없음
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        MemberTeamColumns columns = memberJpaRepository.searchColumns(condition, 100, 2);
+        assertThat(columns.size()).isEqualTo(4);
+        assertThat(columns.teamCount()).isEqualTo(2); // 팀 이름은 팀마다 한 번만 저장
+
+        List<String> usernames = new ArrayList<>();
+        MemberTeamColumns.Cursor cursor = columns.cursor();
+        while (cursor.next()) {
+            usernames.add(cursor.getUsername() + ":" + cursor.getTeamName());
+        }
+        assertThat(usernames).containsExactly("member2:teamA", "member3:teamB", "member4:teamB", "member5:null");
+
+        // JSON은 List<MemberTeamDto>와 같은 모양
+        List<MemberTeamDto> dtos = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            dtos.add(columns.get(i));
+        }
+        assertThat(objectMapper.readTree(objectMapper.writeValueAsString(columns)))
+                .isEqualTo(objectMapper.readTree(objectMapper.writeValueAsString(dtos)));
+
+        // 최대 row 수를 넘으면 중간에 멈춤
+        assertThatThrownBy(() -> memberJpaRepository.searchColumns(condition, 3, 2))
+                .isInstanceOf(SearchTooBroadException.class);
+    }
+
+}
@@ -0,0 +1,144 @@
+package study.querydsl.repository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.CountQueryExecutor;
+import study.querydsl.repository.support.MemberCountCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * searchPageComplex의 컨텐트 쿼리와 카운트 쿼리가 실제로 겹쳐서 실행되는지 확인
+ * 리포지토리의 읽기 전용 트랜잭션에서 바로 실행해야 해서 @Transactional(롤백) 없이 데이터를 커밋하고, 끝나면 지움.
+ * p6spy 리스너가 컨텐트 쿼리 실행 직전에 카운트 쿼리가 다른 스레드에서 시작될 때까지 기다림.
+ * 순차 실행이면 카운트는 컨텐트가 끝난 뒤에 같은 스레드에서 나가기 때문에 기다림이 timeout으로 끝남.
+ */
+@SpringBootTest
+class MemberParallelCountTest {
+
+    static volatile boolean armed;
+    static volatile CountDownLatch countStarted;
+    static volatile boolean contentWaitedForCount;
+    static volatile String countThread;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    CountQueryExecutor countQueryExecutor;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    Long teamId;
+    final List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        countCache.clear();
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team team = new Team("parallelTeam");
+            em.persist(team);
+            teamId = team.getId();
+            for (int i = 0; i < 4; i++) {
+                Member member = new Member("parallel" + i, 10 + i, team);
+                em.persist(member);
+                memberIds.add(member.getId());
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        armed = false;
+        tx.executeWithoutResult(status -> {
+            memberIds.forEach(id -> em.remove(em.find(Member.class, id)));
+            em.flush();
+            em.remove(em.find(Team.class, teamId));
+        });
+    }
+
+    @Test
+    public void contentAndCountOverlap() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("parallelTeam");
+
+        countStarted = new CountDownLatch(1);
+        contentWaitedForCount = false;
+        countThread = null;
+        long parallel = countQueryExecutor.getParallelCount();
+        armed = true;
+
+        // 두 번째 페이지라 카운트가 필요함
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, PageRequest.of(1, 3));
+        armed = false;
+
+        assertThat(page.getContent()).extracting("username").containsExactly("parallel3");
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(contentWaitedForCount).as("컨텐트 쿼리 실행 전에 카운트 쿼리가 시작됨").isTrue();
+        assertThat(countThread).startsWith("count-query-");
+        assertThat(countQueryExecutor.getParallelCount()).isEqualTo(parallel + 1);
+    }
+
+    @TestConfiguration
+    static class OverlapConfig {
+
+        @Bean
+        SimpleJdbcEventListener overlapListener() {
+            return new SimpleJdbcEventListener() {
+                @Override
+                public void onBeforeAnyExecute(StatementInformation statementInformation) {
+                    if (!armed) {
+                        return;
+                    }
+                    String sql = statementInformation.getSql().toLowerCase();
+                    if (sql.contains("count(")) {
+                        countThread = Thread.currentThread().getName();
+                        countStarted.countDown();
+                    } else {
+                        contentWaitedForCount = await(countStarted);
+                    }
+                }
+            };
+        }
+
+        private static boolean await(CountDownLatch latch) {
+            try {
+                return latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+}
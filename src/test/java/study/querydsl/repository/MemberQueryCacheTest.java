@@ -0,0 +1,119 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * findByUsername 쿼리 캐시 + Member 2차 캐시
+ * 쿼리 캐시는 커밋된 데이터로만 채워지고 커밋 시점에 무효화되기 때문에 @Transactional(롤백) 대신 트랜잭션을 직접 커밋하고, 끝나면 지움.
+ */
+@SpringBootTest
+class MemberQueryCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberBulkUpdater memberBulkUpdater;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    Statistics statistics;
+    Long teamId;
+    final List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team team = new Team("cacheTeam");
+            em.persist(team);
+            teamId = team.getId();
+            for (int i = 0; i < 3; i++) {
+                Member member = new Member("cacheMember", 10 + i, team);
+                em.persist(member);
+                memberIds.add(member.getId());
+            }
+        });
+
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            memberIds.forEach(id -> em.remove(em.find(Member.class, id)));
+            em.flush();
+            em.remove(em.find(Team.class, teamId));
+        });
+    }
+
+    @Test
+    public void hitLoadsMembersFromEntityCache() {
+        assertThat(memberRepository.findByUsername("cacheMember")).hasSize(3);
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCachePutCount()).isEqualTo(1);
+
+        long statements = statistics.getPrepareStatementCount();
+        assertThat(memberRepository.findByUsername("cacheMember")).hasSize(3);
+
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        // 쿼리 캐시의 id 3개를 엔티티 캐시에서 꺼냄 -> SQL 0개 (엔티티 캐시가 없으면 row마다 select)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getDomainDataRegionStatistics(Member.class.getName()).getHitCount()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    public void entityUpdateInvalidates() {
+        memberRepository.findByUsername("cacheMember");
+
+        tx.executeWithoutResult(status -> em.find(Member.class, memberIds.get(0)).setAge(50));
+
+        long statements = statistics.getPrepareStatementCount();
+        List<Member> result = memberRepository.findByUsername("cacheMember");
+
+        assertThat(statistics.getQueryCacheHitCount()).isZero();
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isGreaterThan(statements);
+        assertThat(result).extracting("age").contains(50);
+    }
+
+    @Test
+    public void bulkUpdateInvalidates() {
+        memberRepository.findByUsername("cacheMember");
+
+        memberBulkUpdater.update(QMember.member.id.in(memberIds), clause -> clause.set(QMember.member.age, 99));
+
+        List<Member> result = memberRepository.findByUsername("cacheMember");
+
+        assertThat(statistics.getQueryCacheHitCount()).isZero();
+        assertThat(result).extracting("age").containsOnly(99);
+    }
+
+}
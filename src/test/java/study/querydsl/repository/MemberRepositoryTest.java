@@ -2,21 +2,29 @@ package study.querydsl.repository;
 
 import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamSlice;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.CountQueryExecutor;
+import study.querydsl.repository.support.InvalidSearchParameterException;
+import study.querydsl.repository.support.MemberCountCache;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -29,6 +37,18 @@ class MemberRepositoryTest {
     @Autowired
     MemberRepository memberRepository;
 
+    @Autowired
+    CountQueryExecutor countQueryExecutor;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    // 카운트 캐시는 롤백과 상관 없이 남아있기 때문에 테스트마다 비워줌.
+    @BeforeEach
+    public void before() {
+        countCache.clear();
+    }
+
     @Test
     public void basicTest() {
         Member member = new Member("member1", 10);
@@ -99,6 +119,186 @@ class MemberRepositoryTest {
         assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
     }
 
+    @Test
+    public void searchPageComplex() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+
+        Member member3 = new Member("member3", 30, teamB);
+        Member member4 = new Member("member4", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // 첫 페이지인데 컨텐츠가 페이지 크기보다 작으면 카운트 쿼리를 생략함.
+        long skipped = countQueryExecutor.getSkippedCount();
+        Page<MemberTeamDto> small = memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+        assertThat(small.getTotalElements()).isEqualTo(4);
+        assertThat(countQueryExecutor.getSkippedCount()).isEqualTo(skipped + 1);
+
+        long executed = countQueryExecutor.getExecutedCount();
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, PageRequest.of(0, 3));
+        assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(countQueryExecutor.getExecutedCount()).isEqualTo(executed + 1);
+
+        // 같은 조건이면 캐시된 카운트를 사용함.
+        long hit = countCache.getHitCount();
+        Page<MemberTeamDto> cached = memberRepository.searchPageComplex(condition, PageRequest.of(1, 3));
+        assertThat(cached.getContent()).extracting("username").containsExactly("member4");
+        assertThat(cached.getTotalElements()).isEqualTo(4);
+        assertThat(countQueryExecutor.getExecutedCount()).isEqualTo(executed + 1);
+        assertThat(countCache.getHitCount()).isEqualTo(hit + 1);
+    }
+
+    @Test
+    public void searchPageComplexSortByTeamName() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+
+        Member member3 = new Member("member3", 30, teamB);
+        Member member4 = new Member("member4", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by(Sort.Order.desc("teamName"), Sort.Order.asc("age")));
+
+        Page<MemberTeamDto> result = memberRepository.searchPageComplex(condition, pageRequest);
+        assertThat(result.getContent()).extracting("username").containsExactly("member3", "member4", "member1", "member2");
+
+        // 허용하지 않은 속성은 정렬 불가
+        assertThatThrownBy(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 10, Sort.by("team.members"))))
+                .isInstanceOf(InvalidSearchParameterException.class);
+    }
+
+    @Test
+    public void searchSlice() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+
+        Member member3 = new Member("member3", 30, teamB);
+        Member member4 = new Member("member4", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        MemberTeamSlice first = memberRepository.searchSlice(condition, null, 3);
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(first.isHasNext()).isTrue();
+
+        MemberTeamSlice second = memberRepository.searchSlice(condition, first.getNextCursor(), 3);
+        assertThat(second.getContent()).extracting("username").containsExactly("member4");
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void searchBatch() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition byTeamA = new MemberSearchCondition();
+        byTeamA.setTeamName("teamA");
+        MemberSearchCondition byTeamB = new MemberSearchCondition();
+        byTeamB.setTeamName("teamB");
+        MemberSearchCondition byAge = new MemberSearchCondition();
+        byAge.setAgeGoe(20);
+        byAge.setAgeLoe(30);
+        MemberSearchCondition noMatch = new MemberSearchCondition();
+        noMatch.setUsername("none");
+
+        // 같은 모양(teamName)끼리는 쿼리 하나로 묶이고, 같은 조건이 중복돼도 결과는 조건 순서대로 나옴
+        List<List<MemberTeamDto>> result = memberRepository.searchBatch(List.of(byTeamA, byAge, byTeamB, noMatch, byTeamA));
+
+        assertThat(result).hasSize(5);
+        assertThat(result.get(0)).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+        assertThat(result.get(1)).extracting("username").containsExactlyInAnyOrder("member2", "member3");
+        assertThat(result.get(2)).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+        assertThat(result.get(3)).isEmpty();
+        assertThat(result.get(4)).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+    }
+
+    @Test
+    public void searchBatchOverlappingConditions() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+
+        // 같은 모양(ageGoe+ageLoe)이고 범위가 겹침 -> member2는 두 조건 결과에 모두 들어감
+        MemberSearchCondition from10 = new MemberSearchCondition();
+        from10.setAgeGoe(10);
+        from10.setAgeLoe(20);
+        MemberSearchCondition from20 = new MemberSearchCondition();
+        from20.setAgeGoe(20);
+        from20.setAgeLoe(30);
+
+        List<List<MemberTeamDto>> result = memberRepository.searchBatch(List.of(from10, from20));
+
+        assertThat(result.get(0)).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+        assertThat(result.get(1)).extracting("username").containsExactlyInAnyOrder("member2", "member3");
+    }
+
+    @Test
+    public void searchBatchEmptyCondition() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30));
+
+        MemberSearchCondition byAge = new MemberSearchCondition();
+        byAge.setAgeGoe(20);
+
+        // 조건이 없으면 팀이 없는 회원까지 전부 일치
+        List<List<MemberTeamDto>> result = memberRepository.searchBatch(List.of(new MemberSearchCondition(), byAge));
+
+        assertThat(result.get(0)).extracting("username").containsExactlyInAnyOrder("member1", "member2", "member3");
+        assertThat(result.get(1)).extracting("username").containsExactlyInAnyOrder("member2", "member3");
+    }
+
+    @Test
+    public void searchBatchNullCondition() {
+        List<MemberSearchCondition> conditions = new ArrayList<>();
+        conditions.add(new MemberSearchCondition());
+        conditions.add(null);
+
+        assertThatThrownBy(() -> memberRepository.searchBatch(conditions))
+                .isInstanceOf(InvalidSearchParameterException.class);
+    }
+
     /**
      * 한계점 : 조인X (묵시적 조인은 가능하지만 left join이 불가능하다.), 하나의 간단한 테이블에서는 사용 괜찮.
      * 클라이언트가 Querydsl에 의존해야 한다. 서비스 클래스가 Querydsl이라는 구현 기술에 의존해야 한다.
@@ -0,0 +1,73 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.SearchTooBroadException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 페이징 없는 검색의 최대 row 수 제한 (querydsl.query.max-rows)
+ */
+@SpringBootTest(properties = "querydsl.query.max-rows=2")
+@Transactional
+class MemberSearchGuardTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+    }
+
+    @Test
+    public void searchByWhereTooBroad() {
+        // 조건이 없으면 전체 4건 -> 2건 초과
+        assertThatThrownBy(() -> memberJpaRepository.searchByWhere(new MemberSearchCondition()))
+                .isInstanceOf(SearchTooBroadException.class);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        assertThat(memberJpaRepository.searchByWhere(condition)).hasSize(2);
+    }
+
+    @Test
+    public void searchBatchTooBroad() {
+        MemberSearchCondition byTeamA = new MemberSearchCondition();
+        byTeamA.setTeamName("teamA");
+        MemberSearchCondition byTeamB = new MemberSearchCondition();
+        byTeamB.setTeamName("teamB");
+        assertThat(memberRepository.searchBatch(List.of(byTeamA, byTeamB))).allMatch(rows -> rows.size() == 2);
+
+        MemberSearchCondition byAge = new MemberSearchCondition();
+        byAge.setAgeGoe(10);
+        assertThatThrownBy(() -> memberRepository.searchBatch(List.of(byAge)))
+                .isInstanceOf(SearchTooBroadException.class);
+    }
+
+}
@@ -0,0 +1,142 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 쿼리 timeout(querydsl.query.timeout) : DB에서 쿼리가 취소되고 503 + repository.query.timeouts 증가
+ * timeout은 트랜잭션 시작 시점부터라서 @Transactional(롤백) 없이 리포지토리 트랜잭션에서 바로 실행함. (데이터는 커밋하고 끝나면 지움)
+ * 느린 쿼리는 H2 별칭 SLEEP(java.lang.Thread.sleep)을 where 절에 끼워 넣어서 만듦. (row마다 1.5초, timeout 1초)
+ */
+@SpringBootTest(properties = "querydsl.query.timeout=1")
+@AutoConfigureMockMvc
+class MemberSearchTimeoutTest {
+
+    static volatile boolean slow;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    Long teamId;
+    final List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS SLEEP FOR 'java.lang.Thread.sleep'");
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team team = new Team("timeoutTeam");
+            em.persist(team);
+            teamId = team.getId();
+            for (int i = 0; i < 3; i++) {
+                Member member = new Member("timeout", 10 + i, team);
+                em.persist(member);
+                memberIds.add(member.getId());
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        slow = false;
+        tx.executeWithoutResult(status -> {
+            memberIds.forEach(id -> em.remove(em.find(Member.class, id)));
+            em.flush();
+            em.remove(em.find(Team.class, teamId));
+        });
+    }
+
+    @Test
+    public void repositoryTimeout() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("timeout");
+        assertThat(memberJpaRepository.searchByWhere(condition)).hasSize(3);
+
+        double before = timeouts();
+        slow = true;
+        assertThatThrownBy(() -> memberJpaRepository.searchByWhere(condition))
+                .isInstanceOf(QueryTimeoutException.class);
+        assertThat(timeouts()).isEqualTo(before + 1);
+    }
+
+    @Test
+    public void controllerReturns503() throws Exception {
+        double before = timeouts();
+        slow = true;
+
+        mockMvc.perform(get("/v1/members").param("username", "timeout"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("검색 시간이 초과됐습니다. 검색 조건을 좁혀주세요."));
+
+        assertThat(timeouts()).isEqualTo(before + 1);
+    }
+
+    private double timeouts() {
+        return registry.find("repository.query.timeouts")
+                .tags("method", "searchByWhere", "shape", "username")
+                .counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    @TestConfiguration
+    static class SlowQueryConfig {
+
+        @Bean
+        HibernatePropertiesCustomizer slowQueryInspector() {
+            StatementInspector inspector = sql -> slow ? slowDown(sql) : sql;
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+
+        // 첫 where 뒤에 SLEEP 조건을 끼워 넣음 (검색 조건은 모두 and라서 결과는 그대로). 앞의 JPQL 주석(use_sql_comments)은 건너뜀
+        private static String slowDown(String sql) {
+            int start = sql.startsWith("/*") ? sql.indexOf("*/") + 2 : 0;
+            return sql.substring(0, start) + sql.substring(start).replaceFirst("(?i)\\bwhere\\b", "where SLEEP(1500) is null and");
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+package study.querydsl.repository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.MemberCountCache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 카운트/컨텐트 SQL의 team 조인 (p6spy로 실제 실행된 SQL을 모아서 확인)
+ * 팀 이름 조건이 없으면 team을 안 쓰는 쿼리에서 조인이 빠지고, 있으면 inner join
+ * 쓰기 트랜잭션(@Transactional) 안이라 카운트도 같은 스레드에서 순차 실행됨.
+ */
+@SpringBootTest
+@Transactional
+class MemberTeamJoinTest {
+
+    static final List<String> executed = new CopyOnWriteArrayList<>();
+    static volatile boolean capturing;
+
+    private static final Pattern JPQL_COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern LEFT_JOIN_TEAM = Pattern.compile("\\bleft (outer )?join team\\b");
+    private static final Pattern INNER_JOIN_TEAM = Pattern.compile("(?<!left )(?<!outer )(inner )?\\bjoin team\\b");
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    @BeforeEach
+    public void before() {
+        countCache.clear();
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @AfterEach
+    public void after() {
+        capturing = false;
+    }
+
+    @Test
+    public void searchPageComplexWithoutTeamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+
+        Page<MemberTeamDto> page = capture(() -> memberRepository.searchPageComplex(condition, PageRequest.of(1, 2)));
+
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(countSql()).isNotEmpty().noneMatch(this::joinsTeam);
+        assertThat(contentSql()).isNotEmpty().allMatch(this::leftJoinsTeam); // 팀 컬럼을 select 하니까 컨텐트는 left join
+    }
+
+    @Test
+    public void searchPageComplexWithTeamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        Page<MemberTeamDto> page = capture(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 1)));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(countSql()).isNotEmpty().allMatch(this::innerJoinsTeam);
+        assertThat(contentSql()).isNotEmpty().allMatch(this::innerJoinsTeam);
+    }
+
+    @Test
+    public void memberOnlyQueriesWithoutTeamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+
+        Page<Member> page = capture(() -> memberTestRepository.applyPagination2(condition, PageRequest.of(1, 2)));
+
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(countSql()).isNotEmpty().noneMatch(this::joinsTeam);
+        assertThat(contentSql()).isNotEmpty().noneMatch(this::joinsTeam);
+    }
+
+    @Test
+    public void memberOnlyQueriesWithTeamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        Page<Member> page = capture(() -> memberTestRepository.applyPagination2(condition, PageRequest.of(0, 1)));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(countSql()).isNotEmpty().allMatch(this::innerJoinsTeam);
+        assertThat(contentSql()).isNotEmpty().allMatch(this::innerJoinsTeam);
+    }
+
+    @Test
+    public void memberOnlyQueriesSortedByTeamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        // 팀 이름 정렬만 있으면 컨텐트는 left join (팀 없는 회원도 나와야 함), 카운트는 조인 없음
+        Page<Member> page = capture(() -> memberTestRepository.applyPagination2(condition, PageRequest.of(1, 2, Sort.by("team.name"))));
+
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(countSql()).isNotEmpty().noneMatch(this::joinsTeam);
+        assertThat(contentSql()).isNotEmpty().allMatch(this::leftJoinsTeam);
+    }
+
+    private <T> T capture(Supplier<T> call) {
+        executed.clear();
+        capturing = true;
+        try {
+            return call.get();
+        } finally {
+            capturing = false;
+        }
+    }
+
+    private List<String> countSql() {
+        return executed.stream().filter(sql -> sql.contains("count(")).toList();
+    }
+
+    private List<String> contentSql() {
+        return executed.stream().filter(sql -> sql.startsWith("select") && !sql.contains("count(")).toList();
+    }
+
+    private boolean joinsTeam(String sql) {
+        return leftJoinsTeam(sql) || innerJoinsTeam(sql);
+    }
+
+    private boolean leftJoinsTeam(String sql) {
+        return LEFT_JOIN_TEAM.matcher(sql).find();
+    }
+
+    private boolean innerJoinsTeam(String sql) {
+        return INNER_JOIN_TEAM.matcher(sql).find();
+    }
+
+    @TestConfiguration
+    static class SqlCaptureConfig {
+
+        // use_sql_comments의 JPQL 주석은 빼고, 줄바꿈/공백을 하나로 합쳐서 소문자로
+        @Bean
+        SimpleJdbcEventListener sqlCaptureListener() {
+            return new SimpleJdbcEventListener() {
+                @Override
+                public void onBeforeAnyExecute(StatementInformation statementInformation) {
+                    if (capturing) {
+                        String sql = JPQL_COMMENT.matcher(statementInformation.getSql()).replaceAll("");
+                        executed.add(sql.replaceAll("\\s+", " ").trim().toLowerCase());
+                    }
+                }
+            };
+        }
+    }
+
+}
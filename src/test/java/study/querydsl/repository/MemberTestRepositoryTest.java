@@ -0,0 +1,109 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.InvalidSearchParameterException;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class MemberTestRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void searchPageByIds() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age"));
+
+        Page<Member> result = memberTestRepository.searchPageByIds(condition, pageRequest);
+
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        // id IN (...)으로 다시 조회해도 id 쿼리의 정렬 순서가 유지돼야 함
+        assertThat(result.getContent()).extracting("username").containsExactly("member4", "member3", "member2");
+        // 팀은 fetch join으로 같이 로딩
+        assertThat(result.getContent()).allMatch(m -> Hibernate.isInitialized(m.getTeam()));
+    }
+
+    @Test
+    public void searchPageByIdsWithTeamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        PageRequest pageRequest = PageRequest.of(1, 1, Sort.by("username"));
+
+        Page<Member> result = memberTestRepository.searchPageByIds(condition, pageRequest);
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).extracting("username").containsExactly("member4");
+    }
+
+    @Test
+    public void applyPaginationSortById() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Page<Member> result = memberTestRepository.applyPagination(condition, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+        assertThat(result.getContent()).extracting("username").containsExactly("member4", "member3");
+
+        Page<Member> result2 = memberTestRepository.searchPageByApplyPage(condition, PageRequest.of(0, 2, Sort.by("username")));
+        assertThat(result2.getContent()).extracting("username").containsExactly("member1", "member2");
+    }
+
+    @Test
+    public void applyPaginationSortByTeamName() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        Page<Member> result = memberTestRepository.applyPagination(condition,
+                PageRequest.of(0, 4, Sort.by(Sort.Order.desc("team.name"), Sort.Order.asc("age"))));
+
+        assertThat(result.getContent()).extracting("username").containsExactly("member3", "member4", "member1", "member2");
+    }
+
+    @Test
+    public void applyPaginationRejectsDtoSortName() {
+        // DTO 필드 이름(memberId)은 엔티티 페이징에서는 받지 않음
+        assertThatThrownBy(() -> memberTestRepository.applyPagination(new MemberSearchCondition(), PageRequest.of(0, 2, Sort.by("memberId"))))
+                .isInstanceOf(InvalidSearchParameterException.class);
+    }
+
+    @Test
+    public void searchPageByIdsEmpty() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("none");
+
+        Page<Member> result = memberTestRepository.searchPageByIds(condition, PageRequest.of(0, 3));
+
+        assertThat(result.getContent()).isEmpty();
+        assertThat(result.getTotalElements()).isEqualTo(0);
+    }
+}
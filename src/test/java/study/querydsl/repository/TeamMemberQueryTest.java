@@ -0,0 +1,64 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberTeamSlice;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamMemberQueryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamMemberQuery teamMemberQuery;
+
+    Team teamA;
+
+    @BeforeEach
+    public void before() {
+        teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("a" + i, i, teamA));
+        }
+        em.persist(new Member("b1", 10, teamB));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void findMembers() {
+        MemberTeamSlice first = teamMemberQuery.findMembers(teamA.getId(), null, 3);
+        assertThat(first.getContent()).extracting("username").containsExactly("a1", "a2", "a3");
+        assertThat(first.isHasNext()).isTrue();
+
+        MemberTeamSlice second = teamMemberQuery.findMembers(teamA.getId(), first.getNextCursor(), 3);
+        assertThat(second.getContent()).extracting("username").containsExactly("a4", "a5");
+        assertThat(second.isHasNext()).isFalse();
+    }
+
+    @Test
+    public void streamAndCount() {
+        try (Stream<MemberTeamDto> rows = teamMemberQuery.streamMembers(teamA.getId(), 2)) {
+            assertThat(rows.map(MemberTeamDto::getUsername)).containsExactly("a1", "a2", "a3", "a4", "a5");
+        }
+        assertThat(teamMemberQuery.countMembers(teamA.getId())).isEqualTo(5);
+    }
+
+}
@@ -0,0 +1,172 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.TeamStatsDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.TeamStatsReconciler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * team_stats는 커밋할 때 반영되기 때문에 @Transactional(롤백) 대신 트랜잭션을 직접 커밋하고, 끝나면 지움.
+ */
+@SpringBootTest
+class TeamStatsRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamStatsRepository teamStatsRepository;
+
+    @Autowired
+    TeamStatsReconciler teamStatsReconciler;
+
+    @Autowired
+    MemberBulkUpdater memberBulkUpdater;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    Long teamAId;
+    Long teamBId;
+    final List<Long> memberIds = new ArrayList<>();
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("statsA");
+            Team teamB = new Team("statsB");
+            em.persist(teamA);
+            em.persist(teamB);
+            teamAId = teamA.getId();
+            teamBId = teamB.getId();
+
+            persist(new Member("member1", 10, teamA));
+            persist(new Member("member2", 20, teamA));
+            persist(new Member("member3", 30, teamB));
+            persist(new Member("member4", 40, teamB));
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            memberIds.forEach(id -> em.remove(em.find(Member.class, id)));
+            em.flush();
+            em.remove(em.find(Team.class, teamAId));
+            em.remove(em.find(Team.class, teamBId));
+        });
+        teamStatsReconciler.reconcile();
+    }
+
+    @Test
+    public void insert() {
+        assertStats(teamAId, 2, 30, 10, 20);
+        assertStats(teamBId, 2, 70, 30, 40);
+        assertThat(teamStatsRepository.findByTeamId(teamAId).getAgeAvg()).isEqualTo(15.0);
+    }
+
+    @Test
+    public void changeTeamAndAge() {
+        tx.executeWithoutResult(status -> {
+            Member member1 = em.find(Member.class, memberIds.get(0));
+            member1.changeTeam(em.getReference(Team.class, teamBId));
+            Member member4 = em.find(Member.class, memberIds.get(3));
+            member4.setAge(45);
+        });
+
+        assertStats(teamAId, 1, 20, 20, 20);
+        assertStats(teamBId, 3, 85, 10, 45);
+    }
+
+    @Test
+    public void rollbackIsIgnored() {
+        tx.executeWithoutResult(status -> {
+            persist(new Member("member5", 50, em.getReference(Team.class, teamAId)));
+            status.setRollbackOnly();
+        });
+        memberIds.remove(memberIds.size() - 1);
+
+        assertStats(teamAId, 2, 30, 10, 20);
+    }
+
+    @Test
+    public void delete() {
+        tx.executeWithoutResult(status -> em.remove(em.find(Member.class, memberIds.remove(0))));
+
+        assertStats(teamAId, 1, 20, 20, 20);
+    }
+
+    @Test
+    public void bulkUpdateReconciles() {
+        // 벌크 연산은 이벤트가 없어서 끝나고 바뀐 팀만 재계산으로 맞춤
+        memberBulkUpdater.update(QMember.member.id.in(memberIds), clause -> clause.set(QMember.member.age, QMember.member.age.add(1)));
+
+        assertStats(teamAId, 2, 32, 11, 21);
+        assertStats(teamBId, 2, 72, 31, 41);
+    }
+
+    @Test
+    public void bulkUpdateReconcilesOnlyAffectedTeams() {
+        // teamB 통계를 일부러 틀어둠 -> teamA 회원만 바꾸면 teamB는 다시 계산하지 않아서 그대로
+        tx.executeWithoutResult(status -> em.createNativeQuery("update team_stats set member_count = 99 where team_id = ?")
+                .setParameter(1, teamBId)
+                .executeUpdate());
+
+        memberBulkUpdater.update(QMember.member.team.id.eq(teamAId), clause -> clause.set(QMember.member.age, QMember.member.age.add(1)));
+
+        assertStats(teamAId, 2, 32, 11, 21);
+        assertThat(teamStatsRepository.findByTeamId(teamBId).getMemberCount()).isEqualTo(99);
+    }
+
+    @Test
+    public void bulkUpdateChangingTeam() {
+        // 팀을 바꾸는 벌크 수정 : 변경 전 팀(teamA)과 변경 후 팀(teamB) 모두 재계산
+        Team teamB = tx.execute(status -> em.find(Team.class, teamBId));
+        memberBulkUpdater.update(QMember.member.id.eq(memberIds.get(0)), clause -> clause.set(QMember.member.team, teamB));
+
+        assertStats(teamAId, 1, 20, 20, 20);
+        assertStats(teamBId, 3, 80, 10, 40);
+    }
+
+    @Test
+    public void findAllIncludesEmptyTeam() {
+        tx.executeWithoutResult(status -> em.persist(new Team("statsEmpty")));
+
+        List<TeamStatsDto> result = teamStatsRepository.findAll();
+        TeamStatsDto empty = result.stream().filter(s -> s.getTeamName().equals("statsEmpty")).findFirst().orElseThrow();
+        assertThat(empty.getMemberCount()).isZero();
+        assertThat(empty.getAgeAvg()).isNull();
+
+        tx.executeWithoutResult(status -> em.remove(em.find(Team.class, empty.getTeamId())));
+    }
+
+    private void persist(Member member) {
+        em.persist(member);
+        memberIds.add(member.getId());
+    }
+
+    private void assertStats(Long teamId, long count, long sum, int min, int max) {
+        TeamStatsDto stats = teamStatsRepository.findByTeamId(teamId);
+        assertThat(stats.getMemberCount()).isEqualTo(count);
+        assertThat(stats.getAgeSum()).isEqualTo(sum);
+        assertThat(stats.getAgeMin()).isEqualTo(min);
+        assertThat(stats.getAgeMax()).isEqualTo(max);
+    }
+
+}
@@ -0,0 +1,133 @@
+package study.querydsl.repository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 컬렉션(Team.members) fetch join + 페이징
+ * fail_on_pagination_over_collection_fetch=true : 하이버네이트가 메모리 페이징(HHH90003004 경고)을 하려고 하면 경고 대신 예외
+ * p6spy로 실행된 SQL을 모아서 limit이 팀 id 쿼리에만 걸리는지 확인
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.query.fail_on_pagination_over_collection_fetch=true")
+@Transactional
+class TeamTestRepositoryTest {
+
+    static final List<String> executed = new CopyOnWriteArrayList<>();
+    static volatile boolean capturing;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JPAQueryFactory queryFactory;
+
+    @Autowired
+    TeamTestRepository teamTestRepository;
+
+    @BeforeEach
+    public void before() {
+        for (int t = 1; t <= 3; t++) {
+            Team team = new Team("team" + t);
+            em.persist(team);
+            for (int m = 1; m <= 3; m++) {
+                em.persist(new Member("member" + t + m, t * 10 + m, team));
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @AfterEach
+    public void after() {
+        capturing = false;
+    }
+
+    @Test
+    public void searchPageWithMembers() {
+        executed.clear();
+        capturing = true;
+        Page<Team> result = teamTestRepository.searchPageWithMembers(PageRequest.of(1, 2, Sort.by("name")));
+        capturing = false;
+
+        assertThat(result.getTotalElements()).isEqualTo(3);
+        assertThat(result.getContent()).extracting("name").containsExactly("team3");
+        // 회원은 fetch join으로 같이 로딩 (팀 하나에 row 3개였지만 팀은 하나)
+        assertThat(result.getContent().get(0).getLoadedMembers()).extracting("username")
+                .containsExactlyInAnyOrder("member31", "member32", "member33");
+
+        // limit(offset/fetch first)은 팀 id 쿼리에만, 회원 fetch join 쿼리에는 없음
+        List<String> idSql = executed.stream().filter(sql -> sql.startsWith("select") && !sql.contains("join member")).toList();
+        List<String> fetchSql = executed.stream().filter(sql -> sql.contains("join member")).toList();
+        assertThat(idSql).anyMatch(TeamTestRepositoryTest::paged);
+        assertThat(fetchSql).isNotEmpty().noneMatch(TeamTestRepositoryTest::paged);
+    }
+
+    // 비교용 : 한 쿼리로 컬렉션 fetch join + 페이징하면 메모리 페이징 -> 설정 때문에 예외
+    @Test
+    public void singleQueryCollectionFetchJoinPaging() {
+        assertThatThrownBy(() -> queryFactory
+                .selectFrom(team)
+                .leftJoin(team.members, member).fetchJoin()
+                .orderBy(team.name.asc())
+                .offset(2)
+                .limit(2)
+                .fetch())
+                .hasMessageContaining("in-memory pagination");
+    }
+
+    @Test
+    public void membersNotLoaded() {
+        Team team = teamTestRepository.searchPageWithMembers(PageRequest.of(0, 1, Sort.by("name"))).getContent().get(0);
+        em.clear();
+        Team detached = em.find(Team.class, team.getId());
+
+        assertThatThrownBy(detached::getLoadedMembers)
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static boolean paged(String sql) {
+        return sql.contains(" limit ") || sql.contains(" fetch first ") || sql.contains(" offset ");
+    }
+
+    @TestConfiguration
+    static class SqlCaptureConfig {
+
+        // use_sql_comments의 JPQL 주석은 빼고, 줄바꿈/공백을 하나로 합쳐서 소문자로
+        @Bean
+        SimpleJdbcEventListener sqlCaptureListener() {
+            return new SimpleJdbcEventListener() {
+                @Override
+                public void onBeforeAnyExecute(StatementInformation statementInformation) {
+                    if (capturing) {
+                        String sql = statementInformation.getSql().replaceAll("(?s)/\\*.*?\\*/", "");
+                        executed.add(sql.replaceAll("\\s+", " ").trim().toLowerCase());
+                    }
+                }
+            };
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 비동기 조회 스레드(3) + 카운트 스레드(1) = 커넥션 풀(4)로 두고 비동기 스레드를 꽉 채움
+ * 모든 비동기 스레드가 커넥션을 하나씩 잡은 상태에서도 searchPageComplex(카운트 포함)가 끝나야 하고,
+ * 대기 큐까지 차면 커넥션을 기다리지 않고 바로 거절돼야 함. (커넥션 timeout은 1초로 줄여서 기다리면 실패하게)
+ * 거절 동작만 확인함. 처리량(용량)은 측정하지 않음.
+ */
+@SpringBootTest(properties = {
+        "querydsl.async.pool-size=3",
+        "querydsl.async.queue-capacity=3",
+        "querydsl.count-query.pool-size=1",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.hikari.connection-timeout=1000"
+})
+class AsyncQueryExecutorLoadTest {
+
+    private static final int POOL_SIZE = 3;
+
+    @Autowired
+    AsyncQueryExecutor asyncQueryExecutor;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberCountCache countCache;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate readOnly;
+
+    @BeforeEach
+    public void before() {
+        countCache.clear();
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    public void saturate() throws Exception {
+        CountDownLatch searched = new CountDownLatch(POOL_SIZE);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Page<MemberTeamDto>>> futures = new ArrayList<>();
+
+        // 실행 3개 : 커넥션 3개를 잡고 검색한 뒤 붙잡고 있음 (카운트는 남은 커넥션 1개에서)
+        for (int i = 0; i < POOL_SIZE; i++) {
+            futures.add(asyncQueryExecutor.submit(search(i, searched, release)));
+        }
+        assertThat(searched.await(5, TimeUnit.SECONDS)).as("카운트 커넥션이 모자라도 컨텐트 + 카운트가 끝남").isTrue();
+        assertThat(asyncQueryExecutor.getActiveCount()).isEqualTo(POOL_SIZE);
+
+        // 대기 3개
+        for (int i = POOL_SIZE; i < POOL_SIZE * 2; i++) {
+            futures.add(asyncQueryExecutor.submit(search(i, searched, release)));
+        }
+        assertThat(asyncQueryExecutor.getQueueSize()).isEqualTo(POOL_SIZE);
+
+        // 그 다음은 바로 거절
+        long rejected = asyncQueryExecutor.getRejectedCount();
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> asyncQueryExecutor.submit(search(99, searched, release)))
+                .isInstanceOf(QueryBusyException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(500);
+        assertThat(asyncQueryExecutor.getRejectedCount()).isEqualTo(rejected + 1);
+
+        release.countDown();
+        for (CompletableFuture<Page<MemberTeamDto>> future : futures) {
+            assertThat(future.get(10, TimeUnit.SECONDS).getTotalElements()).isZero();
+        }
+    }
+
+    // 조건마다 username을 다르게 해서 카운트 캐시를 타지 않고 매번 카운트 쿼리가 나가게 함. (두 번째 페이지라 카운트 필요)
+    private Supplier<Page<MemberTeamDto>> search(int index, CountDownLatch searched, CountDownLatch release) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("load" + index);
+        return () -> readOnly.execute(status -> {
+            Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, PageRequest.of(1, 10));
+            searched.countDown();
+            await(release);
+            return page;
+        });
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 실행 스레드 1개 + 대기 1개가 차면 바로 거절되는지 확인 (스프링 없이 실행)
+ */
+class AsyncQueryExecutorTest {
+
+    AsyncQueryExecutor executor = new AsyncQueryExecutor(1, 1);
+
+    @AfterEach
+    public void after() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void rejectWhenQueueFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> running = executor.submit(() -> {
+            started.countDown();
+            await(release);
+            return "running";
+        });
+        started.await();
+        CompletableFuture<String> queued = executor.submit(() -> "queued");
+
+        assertThatThrownBy(() -> executor.submit(() -> "rejected"))
+                .isInstanceOf(QueryBusyException.class);
+        assertThat(executor.getRejectedCount()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.join()).isEqualTo("running");
+        assertThat(queued.join()).isEqualTo("queued");
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 트랜잭션 밖에서 호출해서 카운트가 별도 스레드로 가는 경우 (스프링/H2 서버 없이 실행. 커넥션은 H2 메모리 DB)
+ * 카운트 스레드 1개로 두고, 실행 중인 카운트와 실행 전(대기) 카운트가 버려질 때 지표를 확인
+ */
+class CountQueryExecutorTest {
+
+    CountQueryExecutor executor = new CountQueryExecutor(new NoOpTransactionManager(),
+            new DriverManagerDataSource("jdbc:h2:mem:count;DB_CLOSE_DELAY=-1", "sa", ""), 1, 10, 5);
+
+    @AfterEach
+    public void after() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void countNeeded() {
+        Page<String> page = executor.fetchPage(PageRequest.of(0, 2), () -> List.of("a", "b"), () -> 10L);
+
+        assertThat(page.getTotalElements()).isEqualTo(10);
+        assertThat(executor.getExecutedCount()).isEqualTo(1);
+        assertThat(executor.getSkippedCount()).isZero();
+        assertThat(executor.getWastedCount()).isZero();
+    }
+
+    @Test
+    public void skippedOnlyWhenCountNeverRan() {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger countCalls = new AtomicInteger();
+
+        // 1. 카운트가 먼저 실행을 시작한 뒤 컨텐트가 끝남 (첫 페이지인데 size보다 적어서 카운트 필요 없음) -> wasted
+        Page<String> first = executor.fetchPage(PageRequest.of(0, 10), () -> {
+            await(running);
+            return List.of("a");
+        }, () -> {
+            countCalls.incrementAndGet();
+            running.countDown();
+            await(release);
+            return 1L;
+        });
+
+        // 2. 카운트 스레드가 1번에 잡혀 있어서 카운트는 대기 중 -> skipped, 쿼리도 안 나가야 함
+        Page<String> second = executor.fetchPage(PageRequest.of(0, 10), () -> List.of("a"), () -> {
+            countCalls.incrementAndGet();
+            return 1L;
+        });
+
+        release.countDown();
+        // 3. 카운트가 필요한 호출 : 카운트 스레드가 먼저 차지하든 호출한 스레드가 가져가든 한 번만 실행됨
+        Page<String> third = executor.fetchPage(PageRequest.of(0, 1), () -> List.of("a"), () -> {
+            countCalls.incrementAndGet();
+            return 5L;
+        });
+
+        assertThat(first.getTotalElements()).isEqualTo(1);
+        assertThat(second.getTotalElements()).isEqualTo(1);
+        assertThat(third.getTotalElements()).isEqualTo(5);
+        assertThat(executor.getWastedCount()).isEqualTo(1);
+        assertThat(executor.getSkippedCount()).isEqualTo(1);
+        assertThat(executor.getExecutedCount()).isEqualTo(1);
+        assertThat(countCalls.get()).isEqualTo(2); // 1번, 3번만 실행
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 커넥션 없이 TransactionTemplate만 통과시킴
+    static class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+
+}
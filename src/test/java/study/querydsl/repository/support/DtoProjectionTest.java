@@ -0,0 +1,56 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.UserDto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 쿼리 없이 row 값 배열로 DTO를 만들어봄 (스프링 없이 실행)
+ */
+class DtoProjectionTest {
+
+    @Test
+    public void setterAndAlias() {
+        DtoProjection<UserDto> projection = DtoProjection.of(UserDto.class, member.username.as("name"), member.age);
+
+        UserDto dto = projection.newInstance("member1", 10);
+
+        assertThat(dto.getName()).isEqualTo("member1");
+        assertThat(dto.getAge()).isEqualTo(10);
+    }
+
+    @Test
+    public void nullIsSkipped() {
+        DtoProjection<MemberDto> projection = DtoProjection.of(MemberDto.class, member.username, member.age);
+
+        MemberDto dto = projection.newInstance(null, null);
+
+        assertThat(dto.getUsername()).isNull();
+        assertThat(dto.getAge()).isZero();
+    }
+
+    @Test
+    public void fieldWithoutSetter() {
+        DtoProjection<FieldOnlyDto> projection = DtoProjection.of(FieldOnlyDto.class, member.username);
+
+        assertThat(projection.newInstance("member1").username).isEqualTo("member1");
+    }
+
+    @Test
+    public void unknownProperty() {
+        // UserDto에는 username이 없음 (as("name") 필요)
+        assertThatThrownBy(() -> DtoProjection.of(UserDto.class, member.username))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DtoProjection.of(UserDto.class, member.age.add(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    static class FieldOnlyDto {
+        private String username;
+    }
+
+}
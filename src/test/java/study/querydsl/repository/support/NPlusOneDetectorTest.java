@@ -0,0 +1,30 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * querydsl.n-plus-one.enabled 로 감지기를 켜고 끔 (DB 없이 빈 등록만 확인)
+ */
+class NPlusOneDetectorTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withUserConfiguration(NPlusOneDetector.class);
+
+    @Test
+    public void enabledByDefault() {
+        runner.run(context -> assertThat(context).hasSingleBean(NPlusOneDetector.class));
+    }
+
+    @Test
+    public void disabled() {
+        runner.withPropertyValues("querydsl.n-plus-one.enabled=false")
+                .run(context -> assertThat(context).doesNotHaveBean(NPlusOneDetector.class));
+    }
+
+}
@@ -0,0 +1,129 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 프라이머리/레플리카 역할의 H2 메모리 DB 두 개로 라우팅 확인 (H2 서버 없이 실행 가능)
+ */
+class ReplicaRoutingDataSourceTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    ReplicaRoutingDataSource routingDataSource;
+    DataSource dataSource;
+
+    @AfterEach
+    public void after() {
+        routingDataSource.close();
+    }
+
+    @Test
+    public void routeByReadOnly() {
+        JdbcTemplate jdbcTemplate = setUp(5);
+
+        TransactionTemplate readOnly = transactionTemplate(true);
+        TransactionTemplate readWrite = transactionTemplate(false);
+
+        String readOnlyNode = readOnly.execute(status -> whereAmI(jdbcTemplate));
+        String readWriteNode = readWrite.execute(status -> whereAmI(jdbcTemplate));
+        assertThat(readOnlyNode).isEqualTo("replica");
+        assertThat(readWriteNode).isEqualTo("primary");
+        assertThat(registry.counter("datasource.route", "target", "replica-0").count()).isEqualTo(1);
+    }
+
+    @Test
+    public void fallbackToPrimaryWhenReplicaLags() {
+        JdbcTemplate jdbcTemplate = setUp(60); // 레플리카 지연 60초 > 허용 5초
+
+        routingDataSource.checkReplicas();
+
+        String node = transactionTemplate(true).execute(status -> whereAmI(jdbcTemplate));
+        assertThat(node).isEqualTo("primary");
+        assertThat(registry.counter("datasource.route", "target", "fallback").count()).isEqualTo(1);
+    }
+
+    // 읽기 전용 트랜잭션 안의 페이징 : 카운트는 count-query 스레드의 새 읽기 전용 트랜잭션이라 레플리카로 감
+    @Test
+    public void parallelCountRoutesToReplica() {
+        JdbcTemplate jdbcTemplate = setUp(5);
+        CountQueryExecutor countQueryExecutor = new CountQueryExecutor(new DataSourceTransactionManager(dataSource),
+                dataSource, 1, 10, 5);
+        CountDownLatch countStarted = new CountDownLatch(1);
+        String[] countThread = new String[1];
+
+        try {
+            Page<String> page = transactionTemplate(true).execute(status ->
+                    countQueryExecutor.fetchPage(PageRequest.of(1, 1), () -> {
+                        await(countStarted); // 카운트가 다른 스레드에서 시작된 뒤에 컨텐트 실행
+                        return List.of(whereAmI(jdbcTemplate));
+                    }, () -> {
+                        countThread[0] = Thread.currentThread().getName();
+                        countStarted.countDown();
+                        return jdbcTemplate.queryForObject("select count(*) * 10 from node where name = 'replica'", Long.class);
+                    }));
+
+            assertThat(page.getContent()).containsExactly("replica");
+            assertThat(page.getTotalElements()).isEqualTo(10); // 레플리카에서 센 경우만 10
+            assertThat(countThread[0]).startsWith("count-query-");
+            assertThat(registry.counter("datasource.route", "target", "replica-0").count()).isEqualTo(2);
+            assertThat(registry.counter("datasource.route", "target", "primary").count()).isZero();
+        } finally {
+            countQueryExecutor.shutdown();
+        }
+    }
+
+    private JdbcTemplate setUp(int replicaLagSeconds) {
+        DataSource primary = h2("primary");
+        DataSource replica = h2("replica");
+        new JdbcTemplate(replica).update("update node set lag_seconds = ?", replicaLagSeconds);
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica),
+                Duration.ofSeconds(5), "select lag_seconds from node", registry);
+        dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        return new JdbcTemplate(dataSource);
+    }
+
+    private TransactionTemplate transactionTemplate(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        template.setReadOnly(readOnly);
+        return template;
+    }
+
+    private String whereAmI(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop table if exists node");
+        jdbcTemplate.execute("create table node (name varchar(20), lag_seconds int)");
+        jdbcTemplate.update("insert into node values (?, 0)", name);
+        return dataSource;
+    }
+
+}